@@ -62,6 +62,22 @@ dependencies {
     testRuntimeOnly(group = "org.junit.jupiter", name = "junit-jupiter-engine")
 }
 
+sourceSets {
+    // build time tool, published as a separate artifact with the `precompiler` classifier
+    create("precompiler") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+    // run on demand with the `benchmark` task, not part of the build
+    create("benchmark") {
+        compileClasspath += sourceSets["main"].output + sourceSets["test"].output
+        runtimeClasspath += sourceSets["main"].output + sourceSets["test"].output
+    }
+}
+configurations["precompilerImplementation"].extendsFrom(configurations["implementation"])
+configurations["benchmarkImplementation"].extendsFrom(configurations["testImplementation"])
+configurations["benchmarkRuntimeOnly"].extendsFrom(configurations["testRuntimeOnly"])
+
 tasks {
     named<RatTask>("rat") {
         excludes.addAll(listOf(
@@ -80,6 +96,37 @@ tasks {
     }
     getByName("check").dependsOn(audit)
     getByName("test").mustRunAfter(audit)
+    // BENCHMARKS
+    register<Test>("benchmark") {
+        group = "verification"
+        description = "Runs benchmarks of the benchmark source set."
+        val benchmarkSourceSet = sourceSets["benchmark"]
+        testClassesDirs = benchmarkSourceSet.output.classesDirs
+        classpath = benchmarkSourceSet.runtimeClasspath
+        useJUnitPlatform()
+    }
+    // PRECOMPILED CONFIGURATION
+    register<Jar>("precompilerJar") {
+        group = "build"
+        description = "Assembles the configuration precompiler."
+        archiveClassifier.set("precompiler")
+        from(sourceSets["precompiler"].output)
+    }
+    val precompileKnotxConfig = register<JavaExec>("precompileKnotxConfig") {
+        group = "verification"
+        description = "Resolves @KnotxApplyConfiguration chains of test classes ahead of time."
+        dependsOn("testClasses", "precompilerClasses")
+        val testSourceSet = sourceSets["test"]
+        classpath = sourceSets["precompiler"].runtimeClasspath + testSourceSet.runtimeClasspath
+        mainClass.set("io.knotx.junit5.KnotxConfigPrecompiler")
+        args(
+            testSourceSet.output.classesDirs.asPath,
+            testSourceSet.output.resourcesDir!!.absolutePath
+        )
+    }
+    if (project.hasProperty("knotx.precompile")) {
+        getByName("test").dependsOn(precompileKnotxConfig)
+    }
 }
 
 publishing {
@@ -88,6 +135,7 @@ publishing {
             from(components["java"])
             artifact(tasks["sourcesJar"])
             artifact(tasks["javadocJar"])
+            artifact(tasks["precompilerJar"])
 
             pom {
                 developers {
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.util;
+
+import com.typesafe.config.Config;
+import io.vertx.core.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/** Compares walking the HOCON tree with rendering and parsing it, parity is tested by unit tests */
+class HoconUtilBenchmark {
+
+  private static final int MODULES = 2000;
+  private static final int ITERATIONS = 50;
+
+  @Test
+  void toJsonObject_comparedToRenderAndParse(TestReporter reporter) {
+    Config config = HoconUtilTest.largeConfig(MODULES);
+
+    // warm up both paths first
+    for (int i = 0; i < ITERATIONS; i++) {
+      new JsonObject(config.root().render(HoconUtilTest.JSON));
+      HoconUtil.toJsonObject(config.root());
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      new JsonObject(config.root().render(HoconUtilTest.JSON));
+    }
+    long rendered = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      HoconUtil.toJsonObject(config.root());
+    }
+    long walked = System.nanoTime() - start;
+
+    reporter.publishEntry("render.ms", String.valueOf(TimeUnit.NANOSECONDS.toMillis(rendered)));
+    reporter.publishEntry("walk.ms", String.valueOf(TimeUnit.NANOSECONDS.toMillis(walked)));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deployments of Knot.x modules made by the Knot.x starter, with their start and end times. Can be
+ * injected into tests, and is written in the Chrome trace format together with lifecycle timings.
+ * More details can be found in README.md.
+ */
+public final class DeploymentTimeline {
+
+  private static final Map<Vertx, DeploymentTimeline> TIMELINES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  /** Orders deployments of all Vert.x instances, see {@linkplain #mark()} */
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<>();
+
+  DeploymentTimeline() {}
+
+  /**
+   * @param vertx Vert.x instance Knot.x is deployed on
+   * @return timeline of deployments made on given instance
+   */
+  static DeploymentTimeline of(Vertx vertx) {
+    return TIMELINES.computeIfAbsent(vertx, key -> new DeploymentTimeline());
+  }
+
+  /**
+   * @return marker of deployments started so far, deployments started later are returned by
+   *     {@linkplain #since(long)}
+   */
+  static long mark() {
+    return SEQUENCE.get();
+  }
+
+  /** @return deployments in the order they were started */
+  public List<Entry> getEntries() {
+    return Collections.unmodifiableList(new ArrayList<>(entries));
+  }
+
+  Entry started(String module, String verticle) {
+    Entry entry = new Entry(module, verticle, SEQUENCE.incrementAndGet(), System.nanoTime());
+    entries.add(entry);
+    return entry;
+  }
+
+  /**
+   * @param mark marker taken with {@linkplain #mark()}
+   * @return new timeline with deployments started after the marker was taken
+   */
+  DeploymentTimeline since(long mark) {
+    DeploymentTimeline result = new DeploymentTimeline();
+    entries.stream().filter(entry -> entry.sequence > mark).forEach(result.entries::add);
+    return result;
+  }
+
+  boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  void addAll(DeploymentTimeline other) {
+    entries.addAllAbsent(other.entries);
+  }
+
+  /**
+   * @param pid process ID the events are grouped under, one per Vert.x instance
+   * @return complete events of finished deployments, one thread per deployment
+   */
+  JsonArray toTraceEvents(int pid) {
+    JsonArray events = new JsonArray();
+    int tid = 0;
+    for (Entry entry : entries) {
+      tid++;
+      if (!entry.isFinished()) {
+        continue;
+      }
+      events.add(
+          new JsonObject()
+              .put("name", entry.module)
+              .put("cat", "deploy")
+              .put("ph", "X")
+              .put("ts", TimeUnit.NANOSECONDS.toMicros(entry.startNanos))
+              .put("dur", TimeUnit.NANOSECONDS.toMicros(entry.endNanos - entry.startNanos))
+              .put("pid", pid)
+              .put("tid", tid)
+              .put(
+                  "args",
+                  new JsonObject()
+                      .put("verticle", entry.verticle)
+                      .put("succeeded", entry.succeeded)));
+    }
+    return events;
+  }
+
+  /** Single verticle deployment */
+  public static final class Entry {
+
+    private final String module;
+    private final String verticle;
+    private final long sequence;
+    private final long startNanos;
+    private volatile long endNanos = -1;
+    private volatile boolean succeeded;
+
+    private Entry(String module, String verticle, long sequence, long startNanos) {
+      this.module = module;
+      this.verticle = verticle;
+      this.sequence = sequence;
+      this.startNanos = startNanos;
+    }
+
+    void finish(boolean succeeded) {
+      this.succeeded = succeeded;
+      this.endNanos = System.nanoTime();
+    }
+
+    /** @return module name from the Knot.x configuration, verticle name when not a module */
+    public String getModule() {
+      return module;
+    }
+
+    /** @return deployed verticle name */
+    public String getVerticle() {
+      return verticle;
+    }
+
+    /** @return {@linkplain System#nanoTime()} taken when the deployment started */
+    public long getStartNanos() {
+      return startNanos;
+    }
+
+    /** @return {@linkplain System#nanoTime()} taken when the deployment finished, -1 until then */
+    public long getEndNanos() {
+      return endNanos;
+    }
+
+    public boolean isFinished() {
+      return endNanos >= 0;
+    }
+
+    public boolean isSucceeded() {
+      return succeeded;
+    }
+
+    /** @return deployment duration in milliseconds, 0 until finished */
+    public double getDurationMillis() {
+      return isFinished() ? (endNanos - startNanos) / (double) TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+  }
+}
@@ -37,4 +37,12 @@ public @interface KnotxApplyConfiguration {
    * @return configuration files
    */
   String[] value();
+
+  /**
+   * Knot.x instance reuse mode. When annotations are declared on many levels, the most specific
+   * annotation with a mode other than {@linkplain KnotxReuse#NONE} wins.
+   *
+   * @return reuse mode
+   */
+  KnotxReuse reuse() default KnotxReuse.NONE;
 }
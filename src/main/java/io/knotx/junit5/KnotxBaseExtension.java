@@ -35,6 +35,10 @@ public abstract class KnotxBaseExtension {
     return extensionContext.getStore(Namespace.create(this.getClass(), extensionContext));
   }
 
+  protected Store getRootStore(ExtensionContext extensionContext) {
+    return extensionContext.getRoot().getStore(Namespace.create(this.getClass()));
+  }
+
   protected String getClassName(ExtensionContext extensionContext) {
     return extensionContext.getTestClass().orElseThrow(IllegalStateException::new).getName();
   }
@@ -15,9 +15,16 @@
  */
 package io.knotx.junit5;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
-import com.typesafe.config.ConfigRenderOptions;
+import io.knotx.junit5.KnotxTimings.Phase;
+import io.knotx.junit5.util.HoconUtil;
 import io.knotx.junit5.wiremock.KnotxWiremockExtension;
 import io.vertx.config.spi.ConfigProcessor;
 import io.vertx.core.AsyncResult;
@@ -27,11 +34,21 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.file.FileSystem;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -39,13 +56,35 @@ import java.util.stream.Stream;
  * structure when loading Knot.x configurations rather than loading them as files completely
  * independent from each other.<br>
  * <br>
- * Used internally in {@linkplain KnotxExtension} to override ports retrieved from {@linkplain
- * KnotxWiremockExtension}.
+ * Used internally in {@linkplain KnotxExtension} to load configuration once, override ports
+ * retrieved from {@linkplain KnotxWiremockExtension} and resolve it before Knot.x is deployed.
  */
 public class KnotxConcatConfigProcessor implements ConfigProcessor {
 
   private static final String OVERRIDES_KEY = "overrides";
   private static final String PATHS_KEY = "paths";
+  private static final String PARALLEL_KEY = "parallel";
+
+  private static final String CACHE_MAXIMUM_SIZE_PROPERTY = "knotx.junit5.config.cache.maxSize";
+  private static final int DEFAULT_CACHE_MAXIMUM_SIZE = 256;
+
+  private static final String PARALLELISM_PROPERTY = "knotx.junit5.config.parallelism";
+  private static final int DEFAULT_PARALLELISM =
+      Math.min(4, Runtime.getRuntime().availableProcessors());
+
+  /** Bounded pool parsing files in parallel loading mode, shared by the JVM */
+  private static final ForkJoinPool PARSE_POOL =
+      new ForkJoinPool(Integer.getInteger(PARALLELISM_PROPERTY, DEFAULT_PARALLELISM));
+
+  /** Parsed, unresolved configuration files keyed by path and content hash, shared by the JVM */
+  private static final Cache<String, Config> PARSED_CONFIGS = createCache();
+
+  /** Fallback chains of parsed files keyed by all the files keys, in order */
+  private static final Cache<String, Config> MERGED_CONFIGS = createCache();
+
+  /** Precompiled chains by paths, empty when outdated or missing, checked once per JVM */
+  private static final Map<List<String>, Optional<Config>> PRECOMPILED_CHAINS =
+      new ConcurrentHashMap<>();
 
   @Override
   public String name() {
@@ -83,18 +122,124 @@ public class KnotxConcatConfigProcessor implements ConfigProcessor {
    * @return full HOCON Config fallback chain
    */
   public Config createHoconConfig(FileSystem fileSystem, JsonObject configuration) {
-    Stream<String> base = getBase(fileSystem, configuration);
-    Stream<String> overrides = getOverrides(configuration);
+    return createHoconConfig(fileSystem, configuration, KnotxTimings.disabled());
+  }
+
+  /**
+   * Same as {@linkplain #createHoconConfig(FileSystem, JsonObject)}, records files read and parse
+   * durations.
+   *
+   * @param fileSystem Vert.x object used to resolve file contents declared in configuration
+   * @param configuration JSON in format described in README.md
+   * @param timings timings to record to
+   * @return full HOCON Config fallback chain
+   */
+  public Config createHoconConfig(
+      FileSystem fileSystem, JsonObject configuration, KnotxTimings timings) {
+    List<String> paths = getPaths(configuration);
+    List<JsonObject> overrides = getOverrides(configuration).collect(Collectors.toList());
+
+    if (configuration.getBoolean(PARALLEL_KEY, false)) {
+      Config base = createBaseFallbackChainInParallel(fileSystem, paths, timings);
+      return timings.time(Phase.CONFIG_PARSE, () -> applyOverrides(base, overrides));
+    }
 
-    // configurations are stored in order of overriding - base first, overrides last
-    // but for actual config creation we need them together and in reverse order
-    List<String> configs = concatAndReverseOrder(base, overrides);
+    List<String> base =
+        timings.time(
+            Phase.CONFIG_READ, () -> getBase(fileSystem, paths).collect(Collectors.toList()));
 
-    return createConfigFallbackChain(configs);
+    return timings.time(
+        Phase.CONFIG_PARSE, () -> applyOverrides(createBaseFallbackChain(paths, base), overrides));
   }
 
-  private Stream<String> getOverrides(JsonObject configuration) {
-    return Optional.of(configuration.getJsonArray(OVERRIDES_KEY))
+  /**
+   * Same as {@linkplain #createHoconConfig(FileSystem, JsonObject, KnotxTimings)}, but returns the
+   * chain precompiled by <code>KnotxConfigPrecompiler</code> when its artifact is on the classpath
+   * and up to date. Files of the chain are read and compared with the artifact once per JVM, so
+   * later calls neither read nor parse them. The result must be resolved with {@linkplain
+   * #resolveConfig(Config, List, KnotxTimings)}.
+   *
+   * @param fileSystem Vert.x object used to resolve file contents declared in configuration
+   * @param configuration JSON in format described in README.md
+   * @param timings timings to record to
+   * @return full HOCON Config fallback chain, or its precompiled form
+   */
+  Config createKnotxConfig(FileSystem fileSystem, JsonObject configuration, KnotxTimings timings) {
+    // precompiled chains contain resolved files only, overrides need the original files
+    if (getOverrides(configuration).findAny().isPresent()) {
+      return createHoconConfig(fileSystem, configuration, timings);
+    }
+
+    boolean parallel = configuration.getBoolean(PARALLEL_KEY, false);
+    return PRECOMPILED_CHAINS
+        .computeIfAbsent(
+            getPaths(configuration),
+            paths -> findPrecompiled(fileSystem, paths, parallel, timings))
+        .orElseGet(() -> createHoconConfig(fileSystem, configuration, timings));
+  }
+
+  /**
+   * Resolve the configuration chain ahead of time, with sentinel values in place of ports from
+   * <code>test.random</code> and <code>test.wiremock</code> sections. Used by <code>
+   * KnotxConfigPrecompiler</code>, published with the <code>precompiler</code> classifier.
+   *
+   * @param fileSystem Vert.x object used to resolve file contents
+   * @param paths configuration files chain
+   * @return precompiled artifact
+   */
+  JsonObject precompile(FileSystem fileSystem, List<String> paths) {
+    List<String> contents = getBase(fileSystem, paths).collect(Collectors.toList());
+
+    return KnotxPrecompiledConfig.createArtifact(
+        createBaseFallbackChain(paths, contents), cacheKeys(paths, contents));
+  }
+
+  /**
+   * @return statistics of the parsed configuration files cache, shared by the JVM
+   */
+  static CacheStats parsedConfigStats() {
+    return PARSED_CONFIGS.stats();
+  }
+
+  /**
+   * @return statistics of the configuration files fallback chains cache, shared by the JVM
+   */
+  static CacheStats mergedConfigStats() {
+    return MERGED_CONFIGS.stats();
+  }
+
+  /**
+   * Apply <code>overrides</code> on top of the configuration created with {@linkplain
+   * #createHoconConfig(FileSystem, JsonObject)} and resolve it, without reading and parsing the
+   * configuration files again.
+   *
+   * @param config HOCON Config fallback chain, not resolved
+   * @param overrides JSON objects applied in order, the last one has the highest priority
+   * @return resolved configuration
+   */
+  public JsonObject resolveConfig(Config config, List<JsonObject> overrides) {
+    return resolveConfig(config, overrides, KnotxTimings.disabled());
+  }
+
+  /**
+   * Same as {@linkplain #resolveConfig(Config, List)}, records parse and resolve duration.
+   *
+   * @param config HOCON Config fallback chain, not resolved
+   * @param overrides JSON objects applied in order, the last one has the highest priority
+   * @param timings timings to record to
+   * @return resolved configuration
+   */
+  public JsonObject resolveConfig(Config config, List<JsonObject> overrides, KnotxTimings timings) {
+    return timings.time(
+        Phase.CONFIG_PARSE,
+        () ->
+            KnotxPrecompiledConfig.isPrecompiled(config)
+                ? KnotxPrecompiledConfig.resolve(config, overrides)
+                : resolveConfig(applyOverrides(config, overrides)));
+  }
+
+  private Stream<JsonObject> getOverrides(JsonObject configuration) {
+    return Optional.ofNullable(configuration.getJsonArray(OVERRIDES_KEY))
         .orElse(new JsonArray().add(configuration.getValue(OVERRIDES_KEY)))
         .stream()
         .filter(Objects::nonNull)
@@ -105,43 +250,193 @@ public class KnotxConcatConfigProcessor implements ConfigProcessor {
                     "Overrides must be instances of JsonObject, got: '" + o.getClass() + "'");
               }
               return (JsonObject) o;
-            })
-        .map(JsonObject::encode);
+            });
   }
 
-  private Stream<String> getBase(final FileSystem fileSystem, JsonObject configuration) {
-    return Optional.of(configuration.getJsonArray(PATHS_KEY))
-        .orElse(new JsonArray())
+  private List<String> getPaths(JsonObject configuration) {
+    return Optional.ofNullable(configuration.getJsonArray(PATHS_KEY)).orElse(new JsonArray())
         .stream()
         .map(String::valueOf)
-        .map(s -> fileSystem.readFileBlocking(s).toString());
+        .collect(Collectors.toList());
+  }
+
+  private Stream<String> getBase(final FileSystem fileSystem, List<String> paths) {
+    return paths.stream().map(s -> fileSystem.readFileBlocking(s).toString());
+  }
+
+  /** @return precompiled chain, when its artifact was created from the current files */
+  private Optional<Config> findPrecompiled(
+      FileSystem fileSystem, List<String> paths, boolean parallel, KnotxTimings timings) {
+    Optional<JsonObject> artifact = KnotxPrecompiledConfig.find(paths);
+    if (!artifact.isPresent()) {
+      return Optional.empty();
+    }
+
+    List<String> contents =
+        timings.time(
+            Phase.CONFIG_READ,
+            () ->
+                parallel
+                    ? readInParallel(fileSystem, paths)
+                    : getBase(fileSystem, paths).collect(Collectors.toList()));
+    return KnotxPrecompiledConfig.matches(artifact.get(), cacheKeys(paths, contents))
+        ? Optional.of(KnotxPrecompiledConfig.toConfig(artifact.get()))
+        : Optional.empty();
+  }
+
+  /** Files are parsed once per content, Config objects are immutable and can be shared */
+  private Config createBaseFallbackChain(List<String> paths, List<String> contents) {
+    List<String> keys = cacheKeys(paths, contents);
+
+    return getCached(
+        MERGED_CONFIGS,
+        String.join("|", keys),
+        () ->
+            createConfigFallbackChainInOrder(
+                IntStream.range(0, paths.size())
+                    .mapToObj(i -> parseCached(keys.get(i), contents.get(i)))
+                    .collect(Collectors.toList())));
+  }
+
+  /**
+   * Files are read concurrently with asynchronous file system operations and each one is parsed on
+   * the bounded pool as soon as it is read. The fallback chain is folded in the declared order
+   * once all of them are parsed, so overriding semantics stay the same as in sequential mode.
+   */
+  private Config createBaseFallbackChainInParallel(
+      FileSystem fileSystem, List<String> paths, KnotxTimings timings) {
+    long start = System.nanoTime();
+
+    List<CompletableFuture<String>> contents =
+        paths.stream().map(path -> readFile(fileSystem, path)).collect(Collectors.toList());
+    List<CompletableFuture<Config>> configs =
+        IntStream.range(0, paths.size())
+            .mapToObj(
+                i ->
+                    contents
+                        .get(i)
+                        .thenApplyAsync(
+                            content -> parseCached(cacheKey(paths.get(i), content), content),
+                            PARSE_POOL))
+            .collect(Collectors.toList());
+
+    join(CompletableFuture.allOf(contents.toArray(new CompletableFuture[0])));
+    timings.record(Phase.CONFIG_READ, start);
+
+    long parseStart = System.nanoTime();
+    join(CompletableFuture.allOf(configs.toArray(new CompletableFuture[0])));
+
+    String key =
+        String.join(
+            "|",
+            cacheKeys(
+                paths,
+                contents.stream().map(CompletableFuture::join).collect(Collectors.toList())));
+    Config base =
+        getCached(
+            MERGED_CONFIGS,
+            key,
+            () ->
+                createConfigFallbackChainInOrder(
+                    configs.stream().map(CompletableFuture::join).collect(Collectors.toList())));
+
+    timings.record(Phase.CONFIG_PARSE, parseStart);
+    return base;
+  }
+
+  private static List<String> readInParallel(FileSystem fileSystem, List<String> paths) {
+    List<CompletableFuture<String>> contents =
+        paths.stream().map(path -> readFile(fileSystem, path)).collect(Collectors.toList());
+
+    join(CompletableFuture.allOf(contents.toArray(new CompletableFuture[0])));
+    return contents.stream().map(CompletableFuture::join).collect(Collectors.toList());
   }
 
-  private List<String> concatAndReverseOrder(Stream<String> base, Stream<String> overrides) {
-    List<String> configs =
-        Stream.concat(base.sequential(), overrides.sequential()).collect(Collectors.toList());
+  private static CompletableFuture<String> readFile(FileSystem fileSystem, String path) {
+    CompletableFuture<String> content = new CompletableFuture<>();
 
-    Collections.reverse(configs);
+    fileSystem.readFile(
+        path,
+        ar -> {
+          if (ar.succeeded()) {
+            content.complete(ar.result().toString());
+          } else {
+            content.completeExceptionally(ar.cause());
+          }
+        });
+    return content;
+  }
+
+  private static void join(CompletableFuture<Void> future) {
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException("Could not load configuration", e.getCause());
+    }
+  }
+
+  /** Configurations are given in order of overriding, base first */
+  private Config createConfigFallbackChainInOrder(List<Config> configs) {
+    List<Config> reversed = new ArrayList<>(configs);
 
-    return configs;
+    // but for actual config creation we need them in reverse order
+    Collections.reverse(reversed);
+
+    return createConfigFallbackChain(reversed);
+  }
+
+  /** Overrides are applied as structured values, the last one has the highest priority */
+  private Config applyOverrides(Config config, List<JsonObject> overrides) {
+    Config fullConfig = config;
+
+    for (JsonObject override : overrides) {
+      fullConfig = HoconUtil.toConfig(override).withFallback(fullConfig);
+    }
+    return fullConfig;
   }
 
-  private Config createConfigFallbackChain(List<String> configs) {
+  private Config createConfigFallbackChain(List<Config> configs) {
     Config fullConfig = ConfigFactory.empty();
 
-    for (String config : configs) {
-      fullConfig = fullConfig.withFallback(ConfigFactory.parseString(config));
+    for (Config config : configs) {
+      fullConfig = fullConfig.withFallback(config);
     }
     return fullConfig;
   }
 
-  private JsonObject resolveConfig(Config finalConfig) {
-    ConfigRenderOptions options =
-        ConfigRenderOptions.concise().setJson(true).setComments(false).setFormatted(false);
+  private static List<String> cacheKeys(List<String> paths, List<String> contents) {
+    return IntStream.range(0, paths.size())
+        .mapToObj(i -> cacheKey(paths.get(i), contents.get(i)))
+        .collect(Collectors.toList());
+  }
+
+  private static String cacheKey(String path, String content) {
+    return path + "#" + Hashing.sha256().hashString(content, StandardCharsets.UTF_8);
+  }
 
-    finalConfig = finalConfig.resolve();
-    String jsonString = finalConfig.root().render(options);
+  private static Config parseCached(String key, String content) {
+    return getCached(PARSED_CONFIGS, key, () -> ConfigFactory.parseString(content));
+  }
 
-    return new JsonObject(jsonString);
+  private static Config getCached(
+      Cache<String, Config> cache, String key, Callable<Config> loader) {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException("Could not parse configuration " + key, e.getCause());
+    }
+  }
+
+  private static Cache<String, Config> createCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(Integer.getInteger(CACHE_MAXIMUM_SIZE_PROPERTY, DEFAULT_CACHE_MAXIMUM_SIZE))
+        .recordStats()
+        .build();
+  }
+
+  private JsonObject resolveConfig(Config finalConfig) {
+    return HoconUtil.toJsonObject(finalConfig.resolve().root());
   }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Runs the test method once for every configuration variant. A variant file is applied on top of
+ * the configuration chain declared with {@linkplain KnotxApplyConfiguration}, so it overrides
+ * only what differs between variants. More details can be found in README.md.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@TestTemplate
+@ExtendWith(KnotxConfigMatrixExtension.class)
+public @interface KnotxConfigMatrix {
+
+  /**
+   * Configuration variants, one invocation each. Same file formats as in {@linkplain
+   * KnotxApplyConfiguration} are supported.
+   *
+   * @return paths of variant files
+   */
+  String[] value();
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.Extension;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContextProvider;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Provides an invocation of a {@linkplain KnotxConfigMatrix} method for every configuration
+ * variant. The variant is stored in the invocation context, where {@linkplain KnotxExtension}
+ * appends it to the configuration chain of Knot.x instances.
+ */
+class KnotxConfigMatrixExtension implements TestTemplateInvocationContextProvider {
+
+  private static final Namespace NAMESPACE = Namespace.create(KnotxConfigMatrixExtension.class);
+  private static final String VARIANT_KEY = "Variant";
+
+  /**
+   * @param paths configuration chain declared for a Knot.x instance
+   * @param extensionContext test context
+   * @return the chain followed by the variant of the current invocation, when there is one
+   */
+  static List<String> withVariant(List<String> paths, ExtensionContext extensionContext) {
+    Variant variant = extensionContext.getStore(NAMESPACE).get(VARIANT_KEY, Variant.class);
+    if (variant == null) {
+      return paths;
+    }
+
+    List<String> result = new ArrayList<>(paths);
+    result.add(variant.path);
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * @param extensionContext test context
+   * @return suffix distinguishing references of concurrent invocations, empty outside a matrix
+   */
+  static String referenceSuffix(ExtensionContext extensionContext) {
+    Variant variant = extensionContext.getStore(NAMESPACE).get(VARIANT_KEY, Variant.class);
+    return variant == null ? "" : "[" + variant.index + "]";
+  }
+
+  @Override
+  public boolean supportsTestTemplate(ExtensionContext context) {
+    return context
+        .getTestMethod()
+        .map(method -> AnnotationSupport.isAnnotated(method, KnotxConfigMatrix.class))
+        .orElse(false);
+  }
+
+  @Override
+  public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(
+      ExtensionContext context) {
+    String[] paths =
+        AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), KnotxConfigMatrix.class)
+            .map(KnotxConfigMatrix::value)
+            .orElseThrow(IllegalStateException::new);
+
+    return IntStream.range(0, paths.length)
+        .mapToObj(index -> new VariantInvocationContext(new Variant(index + 1, paths[index])));
+  }
+
+  private static final class Variant {
+
+    private final int index;
+    private final String path;
+
+    private Variant(int index, String path) {
+      this.index = index;
+      this.path = path;
+    }
+  }
+
+  private static final class VariantInvocationContext implements TestTemplateInvocationContext {
+
+    private final Variant variant;
+
+    private VariantInvocationContext(Variant variant) {
+      this.variant = variant;
+    }
+
+    @Override
+    public String getDisplayName(int invocationIndex) {
+      return String.format("[%d] %s", invocationIndex, variant.path);
+    }
+
+    @Override
+    public List<Extension> getAdditionalExtensions() {
+      BeforeEachCallback storeVariant =
+          context -> context.getStore(NAMESPACE).put(VARIANT_KEY, variant);
+      return Collections.singletonList(storeVariant);
+    }
+  }
+}
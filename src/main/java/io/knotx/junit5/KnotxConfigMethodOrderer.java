@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.Vertx;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+
+/**
+ * Orders test methods so that methods deploying Knot.x with identical configuration chains run one
+ * after another, which lets reused and speculatively deployed instances be taken by the next
+ * method. Groups keep the order in which JUnit would run their first method, and methods keep
+ * their default order within a group.
+ *
+ * <pre>
+ * &#64;TestMethodOrder(KnotxConfigMethodOrderer.class)
+ * </pre>
+ */
+public class KnotxConfigMethodOrderer implements MethodOrderer {
+
+  @Override
+  public void orderMethods(MethodOrdererContext context) {
+    Map<List<List<String>>, Integer> groups = new HashMap<>();
+    Map<MethodDescriptor, Integer> methodGroups = new HashMap<>();
+
+    for (MethodDescriptor method : context.getMethodDescriptors()) {
+      List<List<String>> chains = configChains(method.getMethod());
+      methodGroups.put(method, groups.computeIfAbsent(chains, key -> groups.size()));
+    }
+
+    // stable sort, methods of a group keep their relative order
+    context.getMethodDescriptors().sort(Comparator.comparing(methodGroups::get));
+  }
+
+  /** Configuration chains of Knot.x instances the method deploys, in parameters order */
+  static List<List<String>> configChains(Method method) {
+    KnotxTestDescriptor descriptor = KnotxTestDescriptor.of(method.getDeclaringClass());
+
+    return Arrays.stream(method.getParameters())
+        .filter(KnotxConfigMethodOrderer::isKnotxInstance)
+        .map(parameter -> descriptor.getParameter(parameter).getConfigPaths())
+        .collect(Collectors.toList());
+  }
+
+  private static boolean isKnotxInstance(Parameter parameter) {
+    Class<?> type = parameter.getType();
+    if (type.equals(Supplier.class)) {
+      // only Supplier<Vertx> parameters are resolved by the extension
+      Type supplied = parameter.getParameterizedType();
+      return supplied instanceof ParameterizedType
+          && isVertx(((ParameterizedType) supplied).getActualTypeArguments()[0]);
+    }
+    return isVertx(type) || type.equals(KnotxInstance.class);
+  }
+
+  private static boolean isVertx(Type type) {
+    return type.equals(Vertx.class) || type.equals(io.vertx.reactivex.core.Vertx.class);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Reads and parses configuration chains of a test class in the background, while JUnit sets up
+ * the test, so parsed configurations are already cached by {@linkplain
+ * KnotxConcatConfigProcessor} when Knot.x is deployed. Every chain is prefetched once per suite.
+ * Files are read with a Vert.x instance of the lightweight preset, its file system is shared with
+ * configurations read before a Knot.x instance exists, also when prefetching is disabled.
+ */
+class KnotxConfigPrefetcher implements CloseableResource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxConfigPrefetcher.class);
+
+  private final KnotxConcatConfigProcessor processor;
+  private final Set<List<String>> prefetched = ConcurrentHashMap.newKeySet();
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "knotx-config-prefetch");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private Vertx vertx;
+
+  KnotxConfigPrefetcher(KnotxConcatConfigProcessor processor) {
+    this.processor = processor;
+  }
+
+  static KnotxConfigPrefetcher of(ExtensionContext context, KnotxConcatConfigProcessor processor) {
+    return context
+        .getRoot()
+        .getStore(Namespace.create(KnotxConfigPrefetcher.class))
+        .getOrComputeIfAbsent(
+            KnotxConfigPrefetcher.class,
+            key -> new KnotxConfigPrefetcher(processor),
+            KnotxConfigPrefetcher.class);
+  }
+
+  /**
+   * Schedule reading and parsing of chains which were not prefetched before.
+   *
+   * @param chains configuration files chains
+   * @return completed when the scheduled chains are loaded
+   */
+  CompletableFuture<Void> prefetch(Set<List<String>> chains) {
+    List<CompletableFuture<Void>> loads = new ArrayList<>();
+    for (List<String> chain : chains) {
+      if (prefetched.add(chain)) {
+        loads.add(CompletableFuture.runAsync(() -> load(chain), executor));
+      }
+    }
+    return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]));
+  }
+
+  /** @return file system for reading configurations, shared by the whole suite */
+  FileSystem fileSystem() {
+    return vertx().fileSystem();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    synchronized (this) {
+      if (vertx != null) {
+        vertx.close();
+        vertx = null;
+      }
+    }
+  }
+
+  private void load(List<String> chain) {
+    try {
+      processor.createKnotxConfig(
+          fileSystem(), new JsonObject().put("paths", chain), KnotxTimings.disabled());
+    } catch (RuntimeException e) {
+      // reported when the chain is loaded for the test
+      LOGGER.debug("Could not prefetch configuration " + chain, e);
+    }
+  }
+
+  private synchronized Vertx vertx() {
+    if (vertx == null) {
+      // reads files only, pools sized for Knot.x are not needed
+      vertx = Vertx.vertx(KnotxExtension.lightweightVertxOptions());
+    }
+    return vertx;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigRenderOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Knot.x instance deployed on its own Vert.x, shared between tests with the same fingerprint. */
+class KnotxDeployment {
+
+  private final String fingerprint;
+  private final Vertx vertx;
+  private final Map<String, Integer> randomPorts;
+  private final boolean staticPorts;
+
+  KnotxDeployment(
+      String fingerprint, Vertx vertx, Map<String, Integer> randomPorts, boolean staticPorts) {
+    this.fingerprint = fingerprint;
+    this.vertx = vertx;
+    this.randomPorts = Collections.unmodifiableMap(randomPorts);
+    this.staticPorts = staticPorts;
+  }
+
+  /**
+   * Calculate fingerprint of a Knot.x configuration, before random ports are generated.
+   *
+   * @param vertxOptions options of the Vert.x instance Knot.x is deployed on
+   * @param modules modules to deploy, empty when all declared modules are deployed
+   * @param config configuration fallback chain, unresolved
+   * @param overrides overrides applied on top of configuration, e.g. WireMock ports
+   * @return hash identifying given configuration
+   */
+  static String fingerprint(
+      VertxOptions vertxOptions, List<String> modules, Config config, List<JsonObject> overrides) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(vertxOptions.toJson().encode(), StandardCharsets.UTF_8);
+    hasher.putString(modules.toString(), StandardCharsets.UTF_8);
+    hasher.putString(config.root().render(ConfigRenderOptions.concise()), StandardCharsets.UTF_8);
+    overrides.forEach(override -> hasher.putString(override.encode(), StandardCharsets.UTF_8));
+    return hasher.hash().toString();
+  }
+
+  String getFingerprint() {
+    return fingerprint;
+  }
+
+  Vertx getVertx() {
+    return vertx;
+  }
+
+  /** @return random ports generated for this deployment, by service name */
+  Map<String, Integer> getRandomPorts() {
+    return randomPorts;
+  }
+
+  /** @return whether the configuration has ports which are not generated for the deployment */
+  boolean hasStaticPorts() {
+    return staticPorts;
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
+import com.google.common.cache.CacheStats;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Pool of deployed Knot.x instances, keyed by configuration fingerprint. Instances are leased by
+ * tests and only idle ones, without any lease, are evicted when the pool exceeds its maximum size,
+ * least recently used first. Vert.x instances of evicted and released deployments are handed over
+ * to {@linkplain KnotxVertxCloser} once their last lease is released.
+ */
+class KnotxDeploymentPool implements CloseableResource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxDeploymentPool.class);
+
+  private final String name;
+  private final long maximumSize;
+  private final KnotxVertxCloser closer;
+  private final KnotxTimings timings;
+  private final StatsCounter stats = new SimpleStatsCounter();
+
+  /** Access ordered, so iteration starts with the least recently used instance */
+  private final Map<String, PooledDeployment> deployments = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * @param name pool name used in statistics
+   * @param maximumSize maximum number of living instances, not bounded when lower than 1
+   * @param closer closes Vert.x instances removed from the pool
+   * @param timings timings Vert.x close durations are recorded to
+   */
+  KnotxDeploymentPool(
+      String name, long maximumSize, KnotxVertxCloser closer, KnotxTimings timings) {
+    this.name = name;
+    this.maximumSize = maximumSize;
+    this.closer = closer;
+    this.timings = timings;
+  }
+
+  /**
+   * Lease instance deployed for given fingerprint, deploy it when missing. The instance is not
+   * evicted nor closed until the lease is closed.
+   *
+   * @param fingerprint configuration fingerprint
+   * @param deploy deploys a new instance on its own Vert.x
+   * @return lease of the pooled instance
+   */
+  Lease lease(String fingerprint, Callable<KnotxDeployment> deploy) {
+    PooledDeployment pooled;
+    boolean missing;
+    synchronized (this) {
+      pooled = deployments.get(fingerprint);
+      missing = pooled == null;
+      if (missing) {
+        pooled = new PooledDeployment();
+        deployments.put(fingerprint, pooled);
+        stats.recordMisses(1);
+      } else {
+        stats.recordHits(1);
+      }
+      pooled.leases++;
+    }
+
+    if (missing) {
+      // deployed outside of the lock, other tests with the same fingerprint wait for the result
+      deploy(fingerprint, pooled, deploy);
+    }
+
+    Lease lease = new Lease(pooled);
+    try {
+      pooled.deployment.join();
+    } catch (CompletionException e) {
+      lease.close();
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException("Couldn't deploy Knot.x instance", e.getCause());
+    }
+    return lease;
+  }
+
+  CacheStats stats() {
+    return stats.snapshot();
+  }
+
+  /**
+   * Remove all instances from the pool. Idle ones are handed over to the closer without waiting
+   * for the result, leased ones when their last lease is released.
+   *
+   * @throws InterruptedException when interrupted while waiting for a free closer slot
+   */
+  void release() throws InterruptedException {
+    List<Vertx> idle = new ArrayList<>();
+    synchronized (this) {
+      for (PooledDeployment pooled : deployments.values()) {
+        pooled.removed = true;
+        if (pooled.leases == 0) {
+          pooled.getVertx().ifPresent(idle::add);
+        }
+      }
+      deployments.clear();
+    }
+    for (Vertx vertx : idle) {
+      closer.closeAsync(vertx, timings);
+    }
+
+    CacheStats snapshot = stats();
+    LOGGER.info(
+        String.format(
+            "Knot.x instances pool [%s]: %d hits, %d misses, %d evictions",
+            name, snapshot.hitCount(), snapshot.missCount(), snapshot.evictionCount()));
+  }
+
+  /** Release all pooled instances and wait until they are closed. */
+  @Override
+  public void close() throws TimeoutException, InterruptedException {
+    release();
+    closer.awaitAll();
+  }
+
+  private void deploy(
+      String fingerprint, PooledDeployment pooled, Callable<KnotxDeployment> deploy) {
+    try {
+      pooled.deployment.complete(deploy.call());
+    } catch (Throwable e) {
+      synchronized (this) {
+        if (deployments.get(fingerprint) == pooled) {
+          deployments.remove(fingerprint);
+        }
+      }
+      pooled.deployment.completeExceptionally(e);
+      return;
+    }
+
+    List<Vertx> evicted;
+    synchronized (this) {
+      evicted = evictIdle();
+    }
+    closeAll(evicted);
+  }
+
+  private void release(PooledDeployment pooled) {
+    List<Vertx> toClose;
+    synchronized (this) {
+      pooled.leases--;
+      toClose = evictIdle();
+      if (pooled.leases == 0 && pooled.removed) {
+        pooled.getVertx().ifPresent(toClose::add);
+      }
+    }
+    closeAll(toClose);
+  }
+
+  /** Remove least recently used idle instances above the maximum size, must hold the lock */
+  private List<Vertx> evictIdle() {
+    List<Vertx> evicted = new ArrayList<>();
+    if (maximumSize < 1) {
+      return evicted;
+    }
+
+    Iterator<PooledDeployment> iterator = deployments.values().iterator();
+    while (deployments.size() > maximumSize && iterator.hasNext()) {
+      PooledDeployment pooled = iterator.next();
+      if (pooled.leases == 0) {
+        iterator.remove();
+        pooled.removed = true;
+        stats.recordEviction();
+        pooled.getVertx().ifPresent(evicted::add);
+      }
+    }
+    return evicted;
+  }
+
+  private void closeAll(List<Vertx> vertxes) {
+    vertxes.forEach(this::closeAsync);
+  }
+
+  private void closeAsync(Vertx vertx) {
+    closer.closeAsyncOrFallback(vertx, timings);
+  }
+
+  /** Pooled instance with the number of tests holding it, guarded by the pool lock */
+  private static class PooledDeployment {
+
+    private final CompletableFuture<KnotxDeployment> deployment = new CompletableFuture<>();
+    private int leases;
+    private boolean removed;
+
+    /** @return Vert.x of the deployed instance, empty while deploying or when deploy failed */
+    private Optional<Vertx> getVertx() {
+      if (!deployment.isDone() || deployment.isCompletedExceptionally()) {
+        return Optional.empty();
+      }
+      return Optional.of(deployment.join().getVertx());
+    }
+  }
+
+  /**
+   * Instance held by a test. Stored in the test's extension context, so it is released when the
+   * test finishes.
+   */
+  class Lease implements CloseableResource {
+
+    private final PooledDeployment pooled;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Lease(PooledDeployment pooled) {
+      this.pooled = pooled;
+    }
+
+    KnotxDeployment getDeployment() {
+      return pooled.deployment.join();
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        release(pooled);
+      }
+    }
+  }
+}
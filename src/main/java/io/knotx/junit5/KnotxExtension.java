@@ -17,6 +17,8 @@ package io.knotx.junit5;
 
 import com.google.common.collect.ImmutableMap;
 import com.typesafe.config.Config;
+import io.knotx.junit5.KnotxTestDescriptor.ParameterDescriptor;
+import io.knotx.junit5.KnotxTimings.Phase;
 import io.knotx.junit5.util.FreePortFinder;
 import io.knotx.junit5.wiremock.ClasspathResourcesMockServer;
 import io.knotx.junit5.wiremock.KnotxWiremockExtension;
@@ -26,18 +28,21 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Verticle;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxException;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
-import java.lang.reflect.Executable;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -45,7 +50,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import org.apache.commons.lang3.StringUtils;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
@@ -83,16 +89,37 @@ public class KnotxExtension extends KnotxBaseExtension
 
   private static final long DEFAULT_TIMEOUT_SECONDS = 30;
   private static final String VERTX_INSTANCE_STORE_KEY = "VertxInstance";
+  private static final String CLASS_POOL_STORE_KEY = "ClassDeploymentPool";
+  private static final String SUITE_POOL_STORE_KEY = "SuiteDeploymentPool";
+  private static final String POOL_MAXIMUM_SIZE_PARAMETER = "knotx.junit5.pool.maxSize";
+  private static final long DEFAULT_POOL_MAXIMUM_SIZE = 4;
+  private static final String CLOSE_ASYNC_PARAMETER = "knotx.junit5.close.async";
+  private static final String CLOSE_MAX_PENDING_PARAMETER = "knotx.junit5.close.maxPending";
+  private static final int DEFAULT_CLOSE_MAX_PENDING = 8;
+  private static final String CONFIG_PARALLEL_PARAMETER = "knotx.junit5.config.parallel";
+  private static final String CONFIG_PREFETCH_PARAMETER = "knotx.junit5.config.prefetch";
+  private static final String MODULE_DEPLOYMENTS_STORE_KEY = "ModuleDeployments";
+  private static final String REDEPLOY_DIFF_PARAMETER = "knotx.junit5.redeploy.diff";
+  private static final String TIMELINE_STORE_KEY = "DeploymentTimeline";
+  private static final String SPECULATIVE_STORE_KEY = "SpeculativeDeployer";
+  private static final String SPECULATIVE_PARAMETER = "knotx.junit5.speculative.enabled";
 
   private static final String PORT = "port";
   private static final String HOCON_EXTENSION = "conf";
   private static final String JSON_EXTENSION = "json";
   private static final String RANDOM_GEN_NAMESPACE = "test.random";
 
+  private static final String MODULES = "modules";
+
+  private static final int LIGHTWEIGHT_EVENT_LOOP_POOL_SIZE = 2;
+  private static final int LIGHTWEIGHT_WORKER_POOL_SIZE = 4;
+  private static final int LIGHTWEIGHT_INTERNAL_BLOCKING_POOL_SIZE = 4;
+
   private static final ReadWriteLock referenceMapLock = new ReentrantReadWriteLock(true);
   private static final Map<String, Integer> referencePortMap = new HashMap<>();
 
   private final VertxExtension vertxExtension = new VertxExtension();
+  private final KnotxConcatConfigProcessor configProcessor = new KnotxConcatConfigProcessor();
   private final KnotxWiremockExtension wiremockExtension = new KnotxWiremockExtension();
 
   @Override
@@ -108,7 +135,10 @@ public class KnotxExtension extends KnotxBaseExtension
     }
 
     // vertx and reactivex-vertx
-    return shouldSupportVertx(parameterContext) || shouldSupportInjection(parameterContext);
+    return shouldSupportVertx(parameterContext)
+        || shouldSupportLazyVertx(parameterContext)
+        || shouldSupportTimeline(parameterContext)
+        || shouldSupportInjection(parameterContext);
   }
 
   @Override
@@ -119,6 +149,12 @@ public class KnotxExtension extends KnotxBaseExtension
     if (shouldSupportVertx(parameterContext)) {
       return internalVertxResolve(parameterContext, extensionContext);
     }
+    if (shouldSupportLazyVertx(parameterContext)) {
+      return lazyVertxResolve(parameterContext, extensionContext);
+    }
+    if (shouldSupportTimeline(parameterContext)) {
+      return getDeploymentTimeline(extensionContext);
+    }
     if (shouldSupportInjection(parameterContext)) {
       return resolveInjection(parameterContext, extensionContext);
     }
@@ -131,6 +167,11 @@ public class KnotxExtension extends KnotxBaseExtension
 
   @Override
   public void postProcessTestInstance(Object testInstance, ExtensionContext context) {
+    if (isConfigPrefetch(context)) {
+      // overlaps configuration loading with the test setup
+      KnotxConfigPrefetcher.of(context, configProcessor)
+          .prefetch(KnotxTestDescriptor.of(testInstance.getClass()).getConfigChains());
+    }
     wiremockExtension.postProcessTestInstance(testInstance, context);
   }
 
@@ -138,6 +179,10 @@ public class KnotxExtension extends KnotxBaseExtension
   public void afterAll(ExtensionContext context) throws Exception {
     vertxExtension.afterAll(context);
     cleanupOurVertxes(context);
+    cleanupClassDeployments(context);
+    cleanupSpeculativeDeployments(context);
+    cleanupModuleDeployments(context);
+    // publishes class level timings as well
     wiremockExtension.afterAll(context);
   }
 
@@ -150,6 +195,7 @@ public class KnotxExtension extends KnotxBaseExtension
   public void afterEach(ExtensionContext context) throws Exception {
     vertxExtension.afterEach(context);
     cleanupOurVertxes(context);
+    KnotxTimings.of(context).publish(context);
   }
 
   @Override
@@ -165,9 +211,36 @@ public class KnotxExtension extends KnotxBaseExtension
 
   @Override
   public void addToOverrides(Config config, List<JsonObject> overrides, String forReference) {
+    addToOverrides(config, overrides, forReference, KnotxTimings.disabled());
+  }
+
+  private void addToOverrides(
+      Config config, List<JsonObject> overrides, String forReference, KnotxTimings timings) {
+    try {
+      referenceMapLock.writeLock().lock();
+
+      registerRandomPorts(forReference, addRandomPortsOverride(config, overrides, timings));
+    } finally {
+      referenceMapLock.writeLock().unlock();
+    }
+  }
+
+  private Map<String, Integer> addRandomPortsOverride(
+      Config config, List<JsonObject> overrides, KnotxTimings timings) {
+    return addRandomPortsOverride(config, overrides, timings, new HashMap<>());
+  }
+
+  /** Ports already present in {@code knownPorts} are reused, generated ones are added to it */
+  private Map<String, Integer> addRandomPortsOverride(
+      Config config,
+      List<JsonObject> overrides,
+      KnotxTimings timings,
+      Map<String, Integer> knownPorts) {
+    long start = System.nanoTime();
+    HashMap<String, Integer> servicePorts = new HashMap<>();
+
     if (config.hasPath(RANDOM_GEN_NAMESPACE)) {
       Config servicesConfig = config.getConfig(RANDOM_GEN_NAMESPACE);
-      HashMap<String, Integer> servicePorts = new HashMap<>();
 
       // servicesConfig doesn't support
       Set<String> services = new HashSet<>(servicesConfig.root().keySet());
@@ -176,43 +249,48 @@ public class KnotxExtension extends KnotxBaseExtension
       services.removeIf(s -> !servicesConfig.hasPath(s + "." + PORT));
 
       if (services.isEmpty()) {
-        return;
+        return servicePorts;
       }
 
-      try {
-        referenceMapLock.writeLock().lock();
+      services.forEach(
+          s ->
+              servicePorts.put(
+                  s, knownPorts.computeIfAbsent(s, key -> FreePortFinder.findFreeLocalPort())));
 
-        services.forEach(s -> servicePorts.put(s, FreePortFinder.findFreeLocalPort()));
+      JsonObject override = new JsonObject();
+      servicePorts.forEach((name, port) -> override.put(name, ImmutableMap.of(PORT, port)));
 
-        JsonObject override = new JsonObject();
+      overrides.add(new JsonObject().put("test", new JsonObject().put("random", override)));
+      timings.record(Phase.RANDOM_PORTS, start);
+    }
+    return servicePorts;
+  }
 
-        servicePorts.forEach(
-            (name, port) -> {
-              override.put(name, ImmutableMap.of(PORT, port));
-              referencePortMap.put(forReference + name, port);
-            });
+  private void registerRandomPorts(String forReference, Map<String, Integer> servicePorts) {
+    try {
+      referenceMapLock.writeLock().lock();
 
-        overrides.add(new JsonObject().put("test", new JsonObject().put("random", override)));
-      } finally {
-        referenceMapLock.writeLock().unlock();
-      }
+      servicePorts.forEach((name, port) -> referencePortMap.put(forReference + name, port));
+    } finally {
+      referenceMapLock.writeLock().unlock();
     }
   }
 
   private Object resolveInjection(
       ParameterContext parameterContext, ExtensionContext extensionContext) {
     // need class name, method name, param name
-    String forParam = checkAndGetParameterName(parameterContext);
-
-    if (!StringUtils.endsWithIgnoreCase(forParam, PORT)) {
-      throw new IllegalArgumentException(
-          "Requirement: Variable name must end with 'port' for valid value injection");
-    }
+    String forParam = KnotxTestDescriptor.of(parameterContext).getRandomPortService();
 
-    // trim param name
-    forParam = StringUtils.removeEndIgnoreCase(forParam, PORT);
+    return getRandomPort(extensionContext, parameterContext, forParam);
+  }
 
-    String reference = getClassName(extensionContext) + getMethodName(parameterContext) + forParam;
+  private Integer getRandomPort(
+      ExtensionContext extensionContext, ParameterContext parameterContext, String service) {
+    String reference =
+        getClassName(extensionContext)
+            + getMethodName(parameterContext)
+            + KnotxConfigMatrixExtension.referenceSuffix(extensionContext)
+            + service;
 
     try {
       referenceMapLock.readLock().lock();
@@ -223,23 +301,45 @@ public class KnotxExtension extends KnotxBaseExtension
     }
   }
 
-  private String checkAndGetParameterName(ParameterContext parameterContext) {
-    String name = parameterContext.getParameter().getName();
-    if (name.startsWith("arg")) {
-      throw new IllegalStateException(
-          "Please configure 'options.compilerArgs << \"-parameters\"', please check the README file.");
-    }
-    return name;
-  }
-
   private boolean shouldSupportVertx(ParameterContext parameterContext) {
     Class<?> type = getType(parameterContext);
     return type.equals(io.vertx.reactivex.core.Vertx.class) || type.equals(Vertx.class);
   }
 
+  private boolean shouldSupportLazyVertx(ParameterContext parameterContext) {
+    Class<?> type = getType(parameterContext);
+    if (type.equals(KnotxInstance.class)) {
+      return true;
+    }
+    if (!type.equals(Supplier.class)) {
+      return false;
+    }
+    Type supplied = getSuppliedType(parameterContext);
+    return supplied.equals(io.vertx.reactivex.core.Vertx.class) || supplied.equals(Vertx.class);
+  }
+
+  private Type getSuppliedType(ParameterContext parameterContext) {
+    Type type = parameterContext.getParameter().getParameterizedType();
+    if (type instanceof ParameterizedType) {
+      return ((ParameterizedType) type).getActualTypeArguments()[0];
+    }
+    return Object.class;
+  }
+
+  private boolean shouldSupportTimeline(ParameterContext parameterContext) {
+    return getType(parameterContext).equals(DeploymentTimeline.class);
+  }
+
+  /** Deployments of all Knot.x instances injected into the test, filled when they are resolved */
+  private DeploymentTimeline getDeploymentTimeline(ExtensionContext extensionContext) {
+    return getStore(extensionContext)
+        .getOrComputeIfAbsent(
+            TIMELINE_STORE_KEY, key -> new DeploymentTimeline(), DeploymentTimeline.class);
+  }
+
   private boolean shouldSupportInjection(ParameterContext parameterContext) {
     return getType(parameterContext).equals(Integer.class)
-        && parameterContext.isAnnotated(RandomPort.class);
+        && KnotxTestDescriptor.of(parameterContext).isRandomPort();
   }
 
   private Object internalVertxResolve(
@@ -249,18 +349,7 @@ public class KnotxExtension extends KnotxBaseExtension
 
     // create vertx obj with knotx config injection
     if (type == Vertx.class || isReactivex) {
-      Vertx vertx = (Vertx) resolveVertx(isReactivex, parameterContext, extensionContext);
-
-      List<String> knotxConfigs = resolveAnnotationConfig(parameterContext);
-
-      String forClass = getClassName(extensionContext);
-      String forMethod = getMethodName(parameterContext);
-
-      // required when tests are executed in parallel
-      // some map references go missing and need to be reconstructed
-      wiremockExtension.addMissingInstanceServers(forClass, extensionContext);
-
-      loadKnotxConfig(vertx, knotxConfigs, forClass, forMethod);
+      Vertx vertx = resolveKnotxVertx(parameterContext, extensionContext, isReactivex);
 
       if (isReactivex) {
         return new io.vertx.reactivex.core.Vertx(vertx);
@@ -271,39 +360,458 @@ public class KnotxExtension extends KnotxBaseExtension
     throw new IllegalStateException("Please file a bug report, this shouldn't happen");
   }
 
-  /**
-   * Developer announcement: This method could be worse, but enables us to apply a whole chain of
-   * different configurations taken from class, method, and parameter. User friendliness is a plus.
-   */
-  private List<String> resolveAnnotationConfig(ParameterContext parameter) {
-    Executable executable = parameter.getDeclaringExecutable();
+  private Object lazyVertxResolve(
+      ParameterContext parameterContext, ExtensionContext extensionContext) {
+    // Vert.x extension resolves only Vertx parameters, lazy instances are always our own
+    KnotxInstance instance =
+        new KnotxInstance(
+            () -> resolveKnotxVertx(parameterContext, extensionContext, true),
+            service -> getRandomPort(extensionContext, parameterContext, service));
+
+    if (getType(parameterContext) == Supplier.class
+        && getSuppliedType(parameterContext) == io.vertx.reactivex.core.Vertx.class) {
+      return (Supplier<io.vertx.reactivex.core.Vertx>) instance::getRx;
+    }
+    return instance;
+  }
 
-    KnotxApplyConfiguration classConfig =
-        executable.getDeclaringClass().getAnnotation(KnotxApplyConfiguration.class);
-    KnotxApplyConfiguration methodConfig = executable.getAnnotation(KnotxApplyConfiguration.class);
-    KnotxApplyConfiguration parameterConfig =
-        parameter.getParameter().getAnnotation(KnotxApplyConfiguration.class);
+  private Vertx resolveKnotxVertx(
+      ParameterContext parameterContext, ExtensionContext extensionContext, boolean ownInstance) {
+    ParameterDescriptor descriptor = KnotxTestDescriptor.of(parameterContext);
+    List<String> knotxConfigs =
+        KnotxConfigMatrixExtension.withVariant(descriptor.getConfigPaths(), extensionContext);
+
+    String forClass = getClassName(extensionContext);
+    String forMethod =
+        getMethodName(parameterContext)
+            + KnotxConfigMatrixExtension.referenceSuffix(extensionContext);
+
+    // required when tests are executed in parallel
+    // some map references go missing and need to be reconstructed
+    wiremockExtension.addMissingInstanceServers(forClass, extensionContext);
+
+    KnotxReuse reuse = descriptor.getReuse();
+    Optional<VertxOptions> vertxOptions =
+        descriptor.getVertxOptions().map(KnotxExtension::createVertxOptions);
+    List<String> modules = descriptor.getModules();
+
+    KnotxTimings timings = KnotxTimings.of(extensionContext);
+    // reused instances and kept modules were deployed, and recorded, for earlier tests
+    long timelineMark = DeploymentTimeline.mark();
+
+    Vertx vertx;
+    if (reuse != KnotxReuse.NONE) {
+      VertxOptions options = vertxOptions.orElseGet(VertxOptions::new);
+      vertx =
+          reuseKnotxInstance(
+              extensionContext,
+              reuse,
+              options,
+              knotxConfigs,
+              modules,
+              forClass,
+              forMethod,
+              timings);
+    } else if (isDiffRedeploy(extensionContext)) {
+      VertxOptions options = vertxOptions.orElseGet(VertxOptions::new);
+      vertx =
+          redeployKnotxModules(
+              extensionContext, options, knotxConfigs, modules, forClass, forMethod, timings);
+    } else if (isSpeculativeDeployment(extensionContext)
+        && getStore(extensionContext).get(VERTX_INSTANCE_STORE_KEY) == null) {
+      VertxOptions options = vertxOptions.orElseGet(VertxOptions::new);
+      vertx =
+          speculativeKnotxInstance(
+              extensionContext, options, knotxConfigs, modules, forClass, forMethod, timings);
+      // prepared ahead of time on a Vert.x instance owned by this test
+      timelineMark = 0;
+    } else {
+      vertx =
+          (Vertx) resolveVertx(ownInstance, vertxOptions, parameterContext, extensionContext);
+      loadKnotxConfig(
+          extensionContext, vertx, knotxConfigs, modules, forClass, forMethod, timings);
+    }
+
+    DeploymentTimeline deployed = DeploymentTimeline.of(vertx).since(timelineMark);
+    getDeploymentTimeline(extensionContext).addAll(deployed);
+    if (timings.isEnabled() && !deployed.isEmpty()) {
+      KnotxTimingsReport.of(extensionContext).register(forClass + "#" + forMethod, deployed);
+    }
+    return vertx;
+  }
 
-    List<KnotxApplyConfiguration> list = Arrays.asList(classConfig, methodConfig, parameterConfig);
-    List<String> result = new LinkedList<>();
+  /** Attributes not declared are taken from the preset */
+  static VertxOptions createVertxOptions(KnotxVertxOptions annotation) {
+    VertxOptions options =
+        annotation.preset() == KnotxVertxOptions.Preset.LIGHTWEIGHT
+            ? lightweightVertxOptions()
+            : new VertxOptions();
 
-    for (KnotxApplyConfiguration config : list) {
-      if (Objects.nonNull(config)) {
-        Collections.addAll(result, config.value());
-      }
+    if (annotation.eventLoopPoolSize() != KnotxVertxOptions.FROM_PRESET) {
+      options.setEventLoopPoolSize(annotation.eventLoopPoolSize());
+    }
+    if (annotation.workerPoolSize() != KnotxVertxOptions.FROM_PRESET) {
+      options.setWorkerPoolSize(annotation.workerPoolSize());
     }
+    if (annotation.internalBlockingPoolSize() != KnotxVertxOptions.FROM_PRESET) {
+      options.setInternalBlockingPoolSize(annotation.internalBlockingPoolSize());
+    }
+    if (annotation.blockedThreadCheckInterval() != KnotxVertxOptions.FROM_PRESET) {
+      options.setBlockedThreadCheckInterval(annotation.blockedThreadCheckInterval());
+    }
+    return options.setPreferNativeTransport(annotation.preferNativeTransport());
+  }
 
-    return result;
+  /** @return options of the {@linkplain KnotxVertxOptions.Preset#LIGHTWEIGHT} preset */
+  static VertxOptions lightweightVertxOptions() {
+    return new VertxOptions()
+        .setEventLoopPoolSize(LIGHTWEIGHT_EVENT_LOOP_POOL_SIZE)
+        .setWorkerPoolSize(LIGHTWEIGHT_WORKER_POOL_SIZE)
+        .setInternalBlockingPoolSize(LIGHTWEIGHT_INTERNAL_BLOCKING_POOL_SIZE);
   }
 
   private Object resolveVertx(
-      boolean isReactivex, ParameterContext parameterContext, ExtensionContext extensionContext) {
-    if (!isReactivex) {
+      boolean ownInstance,
+      Optional<VertxOptions> vertxOptions,
+      ParameterContext parameterContext,
+      ExtensionContext extensionContext) {
+    if (!ownInstance && !vertxOptions.isPresent()) {
       return vertxExtension.resolveParameter(parameterContext, extensionContext);
     }
 
     Store store = getStore(extensionContext);
-    return store.getOrComputeIfAbsent(VERTX_INSTANCE_STORE_KEY, o -> Vertx.vertx());
+    return store.getOrComputeIfAbsent(
+        VERTX_INSTANCE_STORE_KEY,
+        o -> Vertx.vertx(vertxOptions.orElseGet(VertxOptions::new)));
+  }
+
+  /**
+   * Find Knot.x instance deployed earlier with the same configuration fingerprint, or deploy a new
+   * one on a dedicated Vert.x instance. Instances are pooled according to the reuse mode: per test
+   * class (closed in {@linkplain #afterAll}) or per test suite.
+   */
+  private Vertx reuseKnotxInstance(
+      ExtensionContext extensionContext,
+      KnotxReuse reuse,
+      VertxOptions vertxOptions,
+      List<String> paths,
+      List<String> modules,
+      String forClass,
+      String forMethod,
+      KnotxTimings timings) {
+    KnotxDeploymentPool pool = getDeploymentPool(extensionContext, reuse);
+
+    Config fullConfig =
+        createBaseConfig(extensionContext, configFileSystem(extensionContext), paths, timings);
+    List<JsonObject> overrides = new ArrayList<>();
+    wiremockExtension.addToOverrides(fullConfig, overrides, forClass, timings);
+
+    String fingerprint =
+        KnotxDeployment.fingerprint(vertxOptions, modules, fullConfig, overrides);
+    boolean recordTimeline = isTimelineRecorded(extensionContext, timings);
+    KnotxDeploymentPool.Lease lease =
+        pool.lease(
+            fingerprint,
+            () ->
+                deployKnotxInstance(
+                    fingerprint,
+                    vertxOptions,
+                    modules,
+                    fullConfig,
+                    overrides,
+                    timings,
+                    recordTimeline));
+    // released when the context finishes, so the instance is not evicted while the test runs
+    getStore(extensionContext).put(lease, lease);
+    KnotxDeployment deployment = lease.getDeployment();
+
+    registerRandomPorts(forClass + forMethod, deployment.getRandomPorts());
+    return deployment.getVertx();
+  }
+
+  /**
+   * Take the Knot.x instance prepared while the previous test was running, or deploy a new one,
+   * then start preparing an instance for the next test, predicting it uses the same configuration.
+   * The instance is owned by the test and closed in {@linkplain #afterEach}.
+   */
+  private Vertx speculativeKnotxInstance(
+      ExtensionContext extensionContext,
+      VertxOptions vertxOptions,
+      List<String> paths,
+      List<String> modules,
+      String forClass,
+      String forMethod,
+      KnotxTimings timings) {
+    KnotxSpeculativeDeployer deployer = getSpeculativeDeployer(extensionContext);
+    // predicted for the next test as well
+    boolean recordTimeline = isTimelineRecorded(extensionContext, timings);
+
+    Config fullConfig =
+        createBaseConfig(extensionContext, configFileSystem(extensionContext), paths, timings);
+    List<JsonObject> overrides = new ArrayList<>();
+    wiremockExtension.addToOverrides(fullConfig, overrides, forClass, timings);
+
+    String fingerprint =
+        KnotxDeployment.fingerprint(vertxOptions, modules, fullConfig, overrides);
+    KnotxDeployment deployment =
+        deployer
+            .take(fingerprint)
+            .orElseGet(
+                () ->
+                    deployKnotxInstance(
+                        fingerprint,
+                        vertxOptions,
+                        modules,
+                        fullConfig,
+                        new ArrayList<>(overrides),
+                        timings,
+                        recordTimeline));
+
+    // a second instance with static ports would fail to bind them while the test runs
+    if (!deployment.hasStaticPorts()) {
+      deployer.prepare(
+          fingerprint,
+          () ->
+              deployKnotxInstance(
+                  fingerprint,
+                  vertxOptions,
+                  modules,
+                  fullConfig,
+                  new ArrayList<>(overrides),
+                  deployer.timings(),
+                  recordTimeline));
+    }
+
+    getStore(extensionContext).put(VERTX_INSTANCE_STORE_KEY, deployment.getVertx());
+    registerRandomPorts(forClass + forMethod, deployment.getRandomPorts());
+    return deployment.getVertx();
+  }
+
+  /**
+   * Deploy Knot.x modules one by one on a Vert.x instance kept for the whole test class. Modules
+   * deployed by a previous test with the same configuration are kept, changed ones are deployed
+   * again. The instance is closed in {@linkplain #afterAll}.
+   */
+  private Vertx redeployKnotxModules(
+      ExtensionContext extensionContext,
+      VertxOptions vertxOptions,
+      List<String> paths,
+      List<String> modules,
+      String forClass,
+      String forMethod,
+      KnotxTimings timings) {
+    KnotxModuleDeployments deployments = getModuleDeployments(extensionContext, vertxOptions);
+    Vertx vertx = deployments.getVertx();
+
+    Config fullConfig = createBaseConfig(extensionContext, vertx.fileSystem(), paths, timings);
+    List<JsonObject> overrides = new ArrayList<>();
+    wiremockExtension.addToOverrides(fullConfig, overrides, forClass, timings);
+    Map<String, Integer> randomPorts =
+        addRandomPortsOverride(fullConfig, overrides, timings, deployments.getRandomPorts());
+    registerRandomPorts(forClass + forMethod, randomPorts);
+
+    JsonObject knotxConfig = configProcessor.resolveConfig(fullConfig, overrides, timings);
+    boolean recordTimeline = isTimelineRecorded(extensionContext, timings);
+    deployments.apply(
+        filterModules(knotxConfig, modules),
+        moduleConfig -> deployKnotx(vertx, moduleConfig, timings, recordTimeline));
+    return vertx;
+  }
+
+  private KnotxDeployment deployKnotxInstance(
+      String fingerprint,
+      VertxOptions vertxOptions,
+      List<String> modules,
+      Config fullConfig,
+      List<JsonObject> overrides,
+      KnotxTimings timings,
+      boolean recordTimeline) {
+    Vertx vertx = Vertx.vertx(vertxOptions);
+    Map<String, Integer> randomPorts = addRandomPortsOverride(fullConfig, overrides, timings);
+    boolean staticPorts;
+
+    try {
+      JsonObject knotxConfig = configProcessor.resolveConfig(fullConfig, overrides, timings);
+      staticPorts = hasStaticPorts(knotxConfig);
+      deployKnotx(vertx, filterModules(knotxConfig, modules), timings, recordTimeline);
+    } catch (RuntimeException e) {
+      vertx.close();
+      throw e;
+    }
+    return new KnotxDeployment(fingerprint, vertx, randomPorts, staticPorts);
+  }
+
+  /**
+   * Ports of the <code>test</code> section are either generated or belong to WireMock servers,
+   * which Knot.x only connects to. Any other port may be bound by Knot.x.
+   */
+  private boolean hasStaticPorts(JsonObject knotxConfig) {
+    Set<Integer> testPorts = new HashSet<>();
+    collectPorts(knotxConfig.getValue("test"), testPorts);
+
+    Set<Integer> ports = new HashSet<>();
+    collectPorts(knotxConfig.copy().put("test", new JsonObject()), ports);
+    ports.removeAll(testPorts);
+    return !ports.isEmpty();
+  }
+
+  private void collectPorts(Object value, Set<Integer> ports) {
+    if (value instanceof JsonObject) {
+      ((JsonObject) value)
+          .forEach(
+              entry -> {
+                if (PORT.equalsIgnoreCase(entry.getKey())
+                    && entry.getValue() instanceof Number
+                    && ((Number) entry.getValue()).intValue() > 0) {
+                  ports.add(((Number) entry.getValue()).intValue());
+                } else {
+                  collectPorts(entry.getValue(), ports);
+                }
+              });
+    } else if (value instanceof JsonArray) {
+      ((JsonArray) value).forEach(child -> collectPorts(child, ports));
+    }
+  }
+
+  private KnotxDeploymentPool getDeploymentPool(
+      ExtensionContext extensionContext, KnotxReuse reuse) {
+    KnotxVertxCloser closer = getVertxCloser(extensionContext);
+
+    if (reuse == KnotxReuse.SUITE) {
+      KnotxTimings suiteTimings = KnotxTimings.of(extensionContext.getRoot());
+      long maximumSize =
+          extensionContext
+              .getConfigurationParameter(POOL_MAXIMUM_SIZE_PARAMETER)
+              .map(Long::parseLong)
+              .orElse(DEFAULT_POOL_MAXIMUM_SIZE);
+
+      return getRootStore(extensionContext)
+          .getOrComputeIfAbsent(
+              SUITE_POOL_STORE_KEY,
+              key -> new KnotxDeploymentPool("suite", maximumSize, closer, suiteTimings),
+              KnotxDeploymentPool.class);
+    }
+
+    String className = getClassName(extensionContext);
+    ExtensionContext classContext = getClassContext(extensionContext);
+    return getStore(classContext)
+        .getOrComputeIfAbsent(
+            CLASS_POOL_STORE_KEY,
+            key -> new KnotxDeploymentPool(className, 0, closer, KnotxTimings.of(classContext)),
+            KnotxDeploymentPool.class);
+  }
+
+  private KnotxModuleDeployments getModuleDeployments(
+      ExtensionContext extensionContext, VertxOptions vertxOptions) {
+    ExtensionContext classContext = getClassContext(extensionContext);
+    Store store = getStore(classContext);
+
+    KnotxModuleDeployments deployments =
+        store.get(MODULE_DEPLOYMENTS_STORE_KEY, KnotxModuleDeployments.class);
+    if (deployments != null && !deployments.matches(vertxOptions)) {
+      // modules can't be moved to a Vert.x instance with different options
+      releaseModuleDeployments(store);
+      deployments = null;
+    }
+    if (deployments == null) {
+      deployments =
+          new KnotxModuleDeployments(
+              getClassName(extensionContext),
+              vertxOptions,
+              getVertxCloser(extensionContext),
+              KnotxTimings.of(classContext));
+      store.put(MODULE_DEPLOYMENTS_STORE_KEY, deployments);
+    }
+    return deployments;
+  }
+
+  private KnotxSpeculativeDeployer getSpeculativeDeployer(ExtensionContext extensionContext) {
+    KnotxVertxCloser closer = getVertxCloser(extensionContext);
+    String className = getClassName(extensionContext);
+    ExtensionContext classContext = getClassContext(extensionContext);
+
+    return getStore(classContext)
+        .getOrComputeIfAbsent(
+            SPECULATIVE_STORE_KEY,
+            key ->
+                new KnotxSpeculativeDeployer(className, closer, KnotxTimings.of(classContext)),
+            KnotxSpeculativeDeployer.class);
+  }
+
+  private KnotxVertxCloser getVertxCloser(ExtensionContext extensionContext) {
+    int maxPending =
+        extensionContext
+            .getConfigurationParameter(CLOSE_MAX_PENDING_PARAMETER)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_CLOSE_MAX_PENDING);
+
+    return KnotxVertxCloser.of(extensionContext, maxPending);
+  }
+
+  private boolean isAsyncClose(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(CLOSE_ASYNC_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  private ExtensionContext getClassContext(ExtensionContext extensionContext) {
+    ExtensionContext context = extensionContext;
+    while (context.getTestMethod().isPresent() && context.getParent().isPresent()) {
+      context = context.getParent().get();
+    }
+    return context;
+  }
+
+  private void cleanupClassDeployments(ExtensionContext extensionContext)
+      throws TimeoutException, InterruptedException {
+    KnotxDeploymentPool pool =
+        getStore(extensionContext).remove(CLASS_POOL_STORE_KEY, KnotxDeploymentPool.class);
+
+    if (pool == null) {
+      return;
+    }
+
+    if (isAsyncClose(extensionContext)) {
+      pool.release();
+    } else {
+      pool.close();
+    }
+  }
+
+  private void cleanupModuleDeployments(ExtensionContext extensionContext)
+      throws TimeoutException, InterruptedException {
+    if (releaseModuleDeployments(getStore(extensionContext)) && !isAsyncClose(extensionContext)) {
+      getVertxCloser(extensionContext).awaitAll();
+    }
+  }
+
+  /** @return whether there were module deployments to release */
+  private boolean releaseModuleDeployments(Store store) {
+    KnotxModuleDeployments deployments =
+        store.remove(MODULE_DEPLOYMENTS_STORE_KEY, KnotxModuleDeployments.class);
+
+    if (deployments == null) {
+      return false;
+    }
+    try {
+      deployments.release();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      deployments.getVertx().close();
+    }
+    return true;
+  }
+
+  private void cleanupSpeculativeDeployments(ExtensionContext extensionContext)
+      throws InterruptedException {
+    KnotxSpeculativeDeployer deployer =
+        getStore(extensionContext).remove(SPECULATIVE_STORE_KEY, KnotxSpeculativeDeployer.class);
+
+    if (deployer != null) {
+      // the instance prepared for a test that never came
+      deployer.close();
+    }
   }
 
   private void cleanupOurVertxes(ExtensionContext extensionContext)
@@ -315,6 +823,19 @@ public class KnotxExtension extends KnotxBaseExtension
     }
 
     Vertx vertx = store.remove(VERTX_INSTANCE_STORE_KEY, Vertx.class);
+    KnotxTimings timings = KnotxTimings.of(extensionContext);
+
+    if (isAsyncClose(extensionContext)) {
+      // the root context awaits all pending closes when the test suite finishes
+      getVertxCloser(extensionContext).closeAsync(vertx, timings);
+    } else {
+      closeVertx(vertx, timings);
+    }
+  }
+
+  private void closeVertx(Vertx vertx, KnotxTimings timings)
+      throws TimeoutException, InterruptedException {
+    long start = System.nanoTime();
     CompletableFuture<Void> toComplete = new CompletableFuture<>();
 
     vertx.close(
@@ -332,49 +853,188 @@ public class KnotxExtension extends KnotxBaseExtension
       throw new VertxException(e);
     } catch (TimeoutException e) {
       throw new TimeoutException("Closing the Vertx context timed out");
+    } finally {
+      timings.record(Phase.VERTX_CLOSE, start);
     }
   }
 
   /** Load Knot.x config from given resource and apply it to Vertx instance */
-  @SuppressWarnings("unchecked")
-  private void loadKnotxConfig(Vertx vertx, List<String> paths, String forClass, String forMethod) {
-    pathsCorrectnessGuard(paths);
+  private void loadKnotxConfig(
+      ExtensionContext extensionContext,
+      Vertx vertx,
+      List<String> paths,
+      List<String> modules,
+      String forClass,
+      String forMethod,
+      KnotxTimings timings) {
+    Config fullConfig = createBaseConfig(extensionContext, vertx.fileSystem(), paths, timings);
 
     List<JsonObject> overrides = new ArrayList<>();
-    Config fullConfig =
-        new KnotxConcatConfigProcessor()
-            .createHoconConfig(vertx.fileSystem(), createKnotxConcatConfig(paths, overrides));
+    wiremockExtension.addToOverrides(fullConfig, overrides, forClass, timings);
+    this.addToOverrides(fullConfig, overrides, forClass + forMethod, timings);
+
+    JsonObject knotxConfig = configProcessor.resolveConfig(fullConfig, overrides, timings);
+    deployKnotx(
+        vertx,
+        filterModules(knotxConfig, modules),
+        timings,
+        isTimelineRecorded(extensionContext, timings));
+  }
+
+  /**
+   * The timeline wraps the Knot.x starter, so it is recorded only when injected into the test or
+   * written to the timings report
+   */
+  private boolean isTimelineRecorded(ExtensionContext extensionContext, KnotxTimings timings) {
+    return timings.isEnabled()
+        || extensionContext
+            .getTestMethod()
+            .map(
+                method ->
+                    Arrays.asList(method.getParameterTypes()).contains(DeploymentTimeline.class))
+            .orElse(false);
+  }
 
-    wiremockExtension.addToOverrides(fullConfig, overrides, forClass);
-    this.addToOverrides(fullConfig, overrides, forClass + forMethod);
+  /** Shared file system for configurations read before the Knot.x Vert.x instance exists */
+  private FileSystem configFileSystem(ExtensionContext extensionContext) {
+    return KnotxConfigPrefetcher.of(extensionContext, configProcessor).fileSystem();
+  }
 
-    CompletableFuture<Void> toComplete = new CompletableFuture<>();
-    DeploymentOptions deploymentOptions = createDeploymentConfig(paths, overrides);
+  private Config createBaseConfig(
+      ExtensionContext extensionContext,
+      FileSystem fileSystem,
+      List<String> paths,
+      KnotxTimings timings) {
+    pathsCorrectnessGuard(paths);
+
+    JsonObject concatConfig =
+        createKnotxConcatConfig(paths, Collections.emptyList())
+            .put("parallel", isParallelConfigLoading(extensionContext));
+
+    return configProcessor.createKnotxConfig(fileSystem, concatConfig, timings);
+  }
+
+  private boolean isConfigPrefetch(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(CONFIG_PREFETCH_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  private boolean isDiffRedeploy(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(REDEPLOY_DIFF_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  private boolean isSpeculativeDeployment(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(SPECULATIVE_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  private boolean isParallelConfigLoading(ExtensionContext extensionContext) {
+    return extensionContext
+        .getConfigurationParameter(CONFIG_PARALLEL_PARAMETER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  /** Keep only listed modules in the resolved configuration, all of them when none are listed */
+  private JsonObject filterModules(JsonObject knotxConfig, List<String> modules) {
+    if (modules.isEmpty()) {
+      return knotxConfig;
+    }
+
+    JsonObject declared = knotxConfig.getJsonObject(MODULES, new JsonObject());
+    List<String> missing =
+        modules.stream().filter(m -> !declared.containsKey(m)).collect(Collectors.toList());
+    if (!missing.isEmpty()) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Modules %s not found in configuration, declared: %s",
+              missing, declared.fieldNames()));
+    }
+
+    JsonObject filtered = new JsonObject();
+    modules.forEach(m -> filtered.put(m, declared.getValue(m)));
+
+    return knotxConfig.copy().put(MODULES, filtered);
+  }
+
+  /**
+   * Deploy Knot.x starter with given, already resolved, configuration
+   *
+   * @return deployment ID of the starter
+   */
+  @SuppressWarnings("unchecked")
+  private String deployKnotx(
+      Vertx vertx, JsonObject knotxConfig, KnotxTimings timings, boolean recordTimeline) {
+    long start = System.nanoTime();
+    CompletableFuture<String> toComplete = new CompletableFuture<>();
+    DeploymentOptions deploymentOptions = createDeploymentConfig(knotxConfig);
 
     try {
       final Class<? extends Verticle> knotxStarterVerticleClass =
           (Class<? extends Verticle>) Class.forName("io.knotx.launcher.KnotxStarterVerticle");
 
+      Supplier<Verticle> starter;
+      if (recordTimeline) {
+        DeploymentTimeline timeline = DeploymentTimeline.of(vertx);
+        Map<String, String> modulesByVerticle = getModulesByVerticle(knotxConfig);
+        starter =
+            () ->
+                new KnotxTimelineVerticle(
+                    newStarter(knotxStarterVerticleClass), timeline, modulesByVerticle);
+      } else {
+        starter = () -> newStarter(knotxStarterVerticleClass);
+      }
+
       vertx.deployVerticle(
-          knotxStarterVerticleClass,
+          starter,
           deploymentOptions,
           ar -> {
             if (ar.succeeded()) {
-              toComplete.complete(null);
+              toComplete.complete(ar.result());
             } else {
               toComplete.completeExceptionally(ar.cause());
             }
           });
 
-      toComplete.get();
+      return toComplete.get();
     } catch (InterruptedException | ExecutionException e) {
       throw new ParameterResolutionException("Couldn't create Knot.x configuration", e);
     } catch (ClassNotFoundException e) {
       throw new TestInstantiationException(
           "Couldn't find class KnotxStarterVerticle on the classpath", e);
+    } finally {
+      timings.record(Phase.DEPLOY, start);
+    }
+  }
+
+  private Verticle newStarter(Class<? extends Verticle> knotxStarterVerticleClass) {
+    try {
+      return knotxStarterVerticleClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new TestInstantiationException("Couldn't create KnotxStarterVerticle", e);
     }
   }
 
+  /** Module names by verticle names, so the timeline can tell which module is deployed */
+  private Map<String, String> getModulesByVerticle(JsonObject knotxConfig) {
+    Map<String, String> result = new HashMap<>();
+    JsonObject declared = knotxConfig.getJsonObject(MODULES, new JsonObject());
+    declared.forEach(
+        entry -> {
+          if (entry.getValue() instanceof String) {
+            result.put((String) entry.getValue(), entry.getKey());
+          }
+        });
+    return result;
+  }
+
   private void pathsCorrectnessGuard(List<String> paths) {
     if (paths.isEmpty()) {
       throw new IllegalArgumentException(
@@ -384,17 +1044,12 @@ public class KnotxExtension extends KnotxBaseExtension
     paths.forEach(this::guardConfigFormat);
   }
 
-  private DeploymentOptions createDeploymentConfig(List<String> paths, List<JsonObject> overrides) {
+  private DeploymentOptions createDeploymentConfig(JsonObject knotxConfig) {
     ConfigRetrieverOptions retrieverOptions = new ConfigRetrieverOptions();
 
-    JsonObject config = createKnotxConcatConfig(paths, overrides);
-
+    // configuration is already resolved, so Knot.x does not need to load it again
     retrieverOptions.addStore(
-        new ConfigStoreOptions()
-            .setType("json")
-            .setFormat("knotx")
-            .setOptional(false)
-            .setConfig(config));
+        new ConfigStoreOptions().setType("json").setOptional(false).setConfig(knotxConfig));
 
     JsonObject storesConfig = retrieverOptions.toJson();
     return new DeploymentOptions()
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.Vertx;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lazily deployed Knot.x instance. Knot.x is deployed on the first {@linkplain #get()} call and the
+ * same Vert.x instance is returned for the rest of the test, so tests skipped by assumptions or
+ * failing before touching Knot.x do not pay for the deployment.
+ */
+public final class KnotxInstance implements Supplier<Vertx> {
+
+  private final Supplier<Vertx> deployment;
+  private final Function<String, Integer> randomPorts;
+
+  private Vertx vertx;
+
+  KnotxInstance(Supplier<Vertx> deployment, Function<String, Integer> randomPorts) {
+    this.deployment = deployment;
+    this.randomPorts = randomPorts;
+  }
+
+  /**
+   * Deploys Knot.x on the first call.
+   *
+   * @return Vert.x instance with Knot.x deployed
+   */
+  @Override
+  public synchronized Vertx get() {
+    if (vertx == null) {
+      vertx = deployment.get();
+    }
+    return vertx;
+  }
+
+  /**
+   * Deploys Knot.x on the first call.
+   *
+   * @return reactive Vert.x instance with Knot.x deployed
+   */
+  public io.vertx.reactivex.core.Vertx getRx() {
+    return new io.vertx.reactivex.core.Vertx(get());
+  }
+
+  /**
+   * Random port generated for a service from the {@code test.random} configuration section,
+   * deploys Knot.x when not deployed yet.
+   *
+   * @param service service name, e.g. {@code globalServer} for {@code test.random.globalServer}
+   * @return port or null when no port was requested for the service
+   */
+  public Integer getRandomPort(String service) {
+    get();
+    return randomPorts.apply(service);
+  }
+
+  /**
+   * @return whether Knot.x has been deployed already
+   */
+  public synchronized boolean isDeployed() {
+    return vertx != null;
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.google.common.hash.Hashing;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Knot.x modules deployed one by one on a Vert.x instance kept between tests. Every module runs in
+ * its own Knot.x starter, with the whole configuration except other modules' entries of <code>
+ * modules</code>, so when the configuration of the next test differs only in some modules, just
+ * these modules are undeployed and deployed again. A module is compared by its <code>modules
+ * </code> and <code>config</code> entries only; when any other section except <code>test</code>
+ * changes, all modules are deployed again. Random ports are generated once and kept, so they do not
+ * change configurations of unchanged modules.
+ */
+class KnotxModuleDeployments implements CloseableResource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxModuleDeployments.class);
+
+  private static final String MODULES = "modules";
+  private static final String CONFIG = "config";
+  private static final String TEST = "test";
+
+  private final String name;
+  private final String optionsKey;
+  private final Vertx vertx;
+  private final KnotxVertxCloser closer;
+  private final KnotxTimings timings;
+  private final Map<String, Integer> randomPorts = new HashMap<>();
+  private final Map<String, DeployedModule> deployed = new LinkedHashMap<>();
+
+  private String sharedFingerprint;
+
+  private int deploys;
+  private int kept;
+
+  /**
+   * @param name test class name used in statistics
+   * @param vertxOptions options of the kept Vert.x instance
+   * @param closer closes the Vert.x instance when released
+   * @param timings timings Vert.x close duration is recorded to
+   */
+  KnotxModuleDeployments(
+      String name, VertxOptions vertxOptions, KnotxVertxCloser closer, KnotxTimings timings) {
+    this.name = name;
+    this.optionsKey = vertxOptions.toJson().encode();
+    this.vertx = Vertx.vertx(vertxOptions);
+    this.closer = closer;
+    this.timings = timings;
+  }
+
+  /**
+   * @param vertxOptions options requested by a test
+   * @return whether the kept Vert.x instance was created with the same options
+   */
+  boolean matches(VertxOptions vertxOptions) {
+    return optionsKey.equals(vertxOptions.toJson().encode());
+  }
+
+  Vertx getVertx() {
+    return vertx;
+  }
+
+  /** @return random ports generated so far, by service name, reused by following tests */
+  Map<String, Integer> getRandomPorts() {
+    return randomPorts;
+  }
+
+  /**
+   * Bring deployed modules in line with given configuration: modules that are no longer declared
+   * or whose configuration changed are undeployed first, then the missing ones are deployed.
+   *
+   * @param knotxConfig resolved Knot.x configuration, with modules already filtered
+   * @param deploy deploys a Knot.x starter with a single module configuration and returns the
+   *     deployment ID
+   */
+  synchronized void apply(JsonObject knotxConfig, Function<JsonObject, String> deploy) {
+    Map<String, JsonObject> moduleConfigs = splitModules(knotxConfig);
+
+    String shared = fingerprint(sharedSections(knotxConfig));
+    boolean sharedChanged = !shared.equals(sharedFingerprint);
+    sharedFingerprint = shared;
+
+    Iterator<Entry<String, DeployedModule>> it = deployed.entrySet().iterator();
+    while (it.hasNext()) {
+      Entry<String, DeployedModule> entry = it.next();
+      String module = entry.getKey();
+      if (sharedChanged
+          || !moduleConfigs.containsKey(module)
+          || !entry.getValue().fingerprint.equals(moduleFingerprint(knotxConfig, module))) {
+        // undeploy before deploying again, so ports are released
+        undeploy(entry.getValue().deploymentId);
+        it.remove();
+      }
+    }
+
+    moduleConfigs.forEach(
+        (module, moduleConfig) -> {
+          if (deployed.containsKey(module)) {
+            kept++;
+            return;
+          }
+          String deploymentId = deploy.apply(moduleConfig);
+          deployed.put(
+              module,
+              new DeployedModule(moduleFingerprint(knotxConfig, module), deploymentId));
+          deploys++;
+        });
+  }
+
+  /**
+   * Hand over the Vert.x instance to the closer without waiting for the result.
+   *
+   * @throws InterruptedException when interrupted while waiting for a free closer slot
+   */
+  synchronized void release() throws InterruptedException {
+    deployed.clear();
+    closer.closeAsync(vertx, timings);
+
+    LOGGER.info(
+        String.format(
+            "Knot.x module deployments [%s]: %d deployed, %d kept", name, deploys, kept));
+  }
+
+  @Override
+  public void close() throws Exception {
+    release();
+  }
+
+  /** Starter configuration of every module, with only its own entry of `modules` */
+  private static Map<String, JsonObject> splitModules(JsonObject knotxConfig) {
+    JsonObject modules = knotxConfig.getJsonObject(MODULES, new JsonObject());
+
+    Map<String, JsonObject> result = new LinkedHashMap<>();
+    for (String module : modules.fieldNames()) {
+      result.put(
+          module,
+          knotxConfig
+              .copy()
+              .put(MODULES, new JsonObject().put(module, modules.getValue(module))));
+    }
+    return result;
+  }
+
+  /** Sections shared by all modules, ports of the `test` section get into module entries */
+  private static JsonObject sharedSections(JsonObject knotxConfig) {
+    JsonObject shared = knotxConfig.copy();
+    shared.remove(MODULES);
+    shared.remove(CONFIG);
+    shared.remove(TEST);
+    return shared;
+  }
+
+  private static String moduleFingerprint(JsonObject knotxConfig, String module) {
+    return fingerprint(
+        new JsonObject()
+            .put(MODULES, knotxConfig.getJsonObject(MODULES, new JsonObject()).getValue(module))
+            .put(CONFIG, knotxConfig.getJsonObject(CONFIG, new JsonObject()).getValue(module)));
+  }
+
+  private static String fingerprint(JsonObject config) {
+    // keys of resolved configurations are sorted, so equal configurations encode equally
+    return Hashing.sha256().hashString(config.encode(), StandardCharsets.UTF_8).toString();
+  }
+
+  private void undeploy(String deploymentId) {
+    CompletableFuture<Void> toComplete = new CompletableFuture<>();
+    vertx.undeploy(
+        deploymentId,
+        ar -> {
+          if (ar.succeeded()) {
+            toComplete.complete(null);
+          } else {
+            toComplete.completeExceptionally(ar.cause());
+          }
+        });
+
+    try {
+      toComplete.get();
+    } catch (ExecutionException e) {
+      throw new VertxException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new VertxException(e);
+    }
+  }
+
+  private static final class DeployedModule {
+
+    private final String fingerprint;
+    private final String deploymentId;
+
+    private DeployedModule(String fingerprint, String deploymentId) {
+      this.fingerprint = fingerprint;
+      this.deploymentId = deploymentId;
+    }
+  }
+}
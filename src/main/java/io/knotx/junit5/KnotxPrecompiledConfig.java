@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigResolveOptions;
+import io.knotx.junit5.util.HoconUtil;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Configuration chain resolved at build time by <code>KnotxConfigPrecompiler</code>. Ports from
+ * the <code>test.random</code> and <code>test.wiremock</code> sections are resolved to sentinel
+ * values. Values the sentinels were substituted into are recorded with explicit <code>
+ * ${test...port}</code> placeholders, which are replaced with actual ports at runtime, so no HOCON
+ * files are parsed. Chains referring to environment variables are not precompiled.
+ */
+final class KnotxPrecompiledConfig {
+
+  /** Classpath location of precompiled artifacts */
+  static final String LOCATION = "knotx-precompiled/";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxPrecompiledConfig.class);
+
+  private static final String ROOT_KEY = "_knotxPrecompiled";
+  private static final String SOURCES_KEY = "sources";
+  private static final String TEST_KEY = "test";
+  private static final String SENTINELS_KEY = "sentinels";
+  private static final String CONFIG_KEY = "config";
+  private static final String PLACEHOLDERS_KEY = "placeholders";
+  private static final String PORT = "port";
+  private static final String[] PORT_NAMESPACES = {"random", "wiremock"};
+
+  /** Fixed width numbers, so one sentinel is never a part of another one */
+  private static final int SENTINEL_BASE = 1_737_000_000;
+  /** Sentinels of the control resolution, values differing from it have ports substituted */
+  private static final int CONTROL_SENTINEL_BASE = 1_838_000_000;
+
+  private static final Map<String, Optional<JsonObject>> ARTIFACTS = new ConcurrentHashMap<>();
+
+  /** Util class */
+  private KnotxPrecompiledConfig() {}
+
+  /**
+   * @param paths configuration files chain
+   * @return classpath location of the artifact precompiled for the chain
+   */
+  static String artifactName(List<String> paths) {
+    String hash = Hashing.sha256().hashString(String.join("\n", paths), StandardCharsets.UTF_8);
+    return LOCATION + hash + ".json";
+  }
+
+  /**
+   * @param paths configuration files chain
+   * @return artifact precompiled for the chain, if present on the classpath
+   */
+  static Optional<JsonObject> find(List<String> paths) {
+    return ARTIFACTS.computeIfAbsent(artifactName(paths), KnotxPrecompiledConfig::load);
+  }
+
+  /**
+   * Resolve the configuration chain with sentinel ports.
+   *
+   * @param base configuration files fallback chain, not resolved
+   * @param sourceKeys path and content hash of every file in the chain, in order
+   * @return artifact
+   * @throws ConfigException.UnresolvedSubstitution when the chain can't be resolved without test
+   *     overrides or refers to environment variables
+   */
+  static JsonObject createArtifact(Config base, List<String> sourceKeys) {
+    Config resolved = resolveWithoutEnvironment(base);
+    JsonObject test =
+        resolved.hasPath(TEST_KEY)
+            ? HoconUtil.toJsonObject(resolved.getConfig(TEST_KEY).root())
+            : new JsonObject();
+
+    JsonObject sentinels = new JsonObject();
+    JsonObject sentinelPorts = new JsonObject();
+    JsonObject controlPorts = new JsonObject();
+    Map<String, String> placeholders = new HashMap<>();
+    int sentinel = SENTINEL_BASE;
+    int controlSentinel = CONTROL_SENTINEL_BASE;
+
+    for (String namespace : PORT_NAMESPACES) {
+      JsonObject services = test.getJsonObject(namespace, new JsonObject());
+      JsonObject ports = new JsonObject();
+      JsonObject controls = new JsonObject();
+
+      for (String service : services.fieldNames()) {
+        Object serviceConfig = services.getValue(service);
+        // random ports are generated only for services declaring a port
+        if (!(serviceConfig instanceof JsonObject)
+            || ("random".equals(namespace) && !((JsonObject) serviceConfig).containsKey(PORT))) {
+          continue;
+        }
+        String path = String.join(".", TEST_KEY, namespace, service, PORT);
+        sentinels.put(path, sentinel);
+        placeholders.put(String.valueOf(sentinel), placeholder(path));
+        ports.put(service, new JsonObject().put(PORT, sentinel++));
+        controls.put(service, new JsonObject().put(PORT, controlSentinel++));
+      }
+      if (!ports.isEmpty()) {
+        sentinelPorts.put(namespace, ports);
+        controlPorts.put(namespace, controls);
+      }
+    }
+
+    JsonObject config = resolveWithPorts(base, sentinelPorts);
+    JsonObject control = resolveWithPorts(base, controlPorts);
+    JsonArray placeholderPaths = new JsonArray();
+    markPlaceholders(config, control, placeholders, new JsonArray(), placeholderPaths);
+
+    return new JsonObject()
+        .put(SOURCES_KEY, new JsonArray(sourceKeys))
+        .put(TEST_KEY, test)
+        .put(SENTINELS_KEY, sentinels)
+        .put(PLACEHOLDERS_KEY, placeholderPaths)
+        .put(CONFIG_KEY, config);
+  }
+
+  /** Values substituted from environment variables would be frozen at build time */
+  private static Config resolveWithoutEnvironment(Config base) {
+    Config resolved = base.resolve(ConfigResolveOptions.noSystem());
+    if (!resolved.equals(base.resolve())) {
+      throw new ConfigException.UnresolvedSubstitution(
+          base.origin(), "environment variables are substituted at runtime");
+    }
+    return resolved;
+  }
+
+  private static JsonObject resolveWithPorts(Config base, JsonObject ports) {
+    Config withPorts = HoconUtil.toConfig(new JsonObject().put(TEST_KEY, ports)).withFallback(base);
+    return HoconUtil.toJsonObject(withPorts.resolve(ConfigResolveOptions.noSystem()).root());
+  }
+
+  /**
+   * Replace sentinels with placeholders in values which differ from the control resolution, so
+   * numbers and strings equal to sentinels only by chance are left untouched.
+   *
+   * @return value with placeholders
+   */
+  private static Object markPlaceholders(
+      Object value,
+      Object control,
+      Map<String, String> placeholders,
+      JsonArray path,
+      JsonArray placeholderPaths) {
+    if (value instanceof JsonObject) {
+      JsonObject object = (JsonObject) value;
+      JsonObject controlObject =
+          control instanceof JsonObject ? (JsonObject) control : new JsonObject();
+      for (String key : object.fieldNames()) {
+        object.put(
+            key,
+            markPlaceholders(
+                object.getValue(key),
+                controlObject.getValue(key),
+                placeholders,
+                path.copy().add(key),
+                placeholderPaths));
+      }
+      return object;
+    }
+    if (value instanceof JsonArray) {
+      JsonArray array = (JsonArray) value;
+      JsonArray controlArray = control instanceof JsonArray ? (JsonArray) control : new JsonArray();
+      List<Object> list = array.getList();
+      for (int i = 0; i < list.size(); i++) {
+        list.set(
+            i,
+            markPlaceholders(
+                array.getValue(i),
+                i < controlArray.size() ? controlArray.getValue(i) : null,
+                placeholders,
+                path.copy().add(i),
+                placeholderPaths));
+      }
+      return array;
+    }
+    if (value == null || value.equals(control)) {
+      return value;
+    }
+
+    String text = String.valueOf(value);
+    if (value instanceof Number) {
+      text = placeholders.getOrDefault(text, text);
+    } else if (value instanceof String) {
+      for (Map.Entry<String, String> placeholder : placeholders.entrySet()) {
+        text = text.replace(placeholder.getKey(), placeholder.getValue());
+      }
+    }
+    if (text.equals(String.valueOf(value))) {
+      return value;
+    }
+    placeholderPaths.add(path);
+    return text;
+  }
+
+  private static String placeholder(String path) {
+    return "${" + path + "}";
+  }
+
+  /**
+   * @param artifact precompiled artifact
+   * @param sourceKeys path and content hash of every file in the chain, read at runtime
+   * @return whether the artifact was created from the same files
+   */
+  static boolean matches(JsonObject artifact, List<String> sourceKeys) {
+    // artifacts without placeholders were created by an older version
+    if (artifact.containsKey(PLACEHOLDERS_KEY)
+        && artifact.getJsonArray(SOURCES_KEY).getList().equals(sourceKeys)) {
+      return true;
+    }
+    LOGGER.warn(
+        String.format(
+            "Precompiled configuration for %s is outdated, configuration files are parsed",
+            sourceKeys));
+    return false;
+  }
+
+  /**
+   * @param artifact precompiled artifact
+   * @return configuration with the original <code>test</code> section, which can be resolved with
+   *     {@linkplain #resolve(Config, List)}
+   */
+  static Config toConfig(JsonObject artifact) {
+    return HoconUtil.toConfig(
+        new JsonObject()
+            .put(TEST_KEY, artifact.getJsonObject(TEST_KEY))
+            .put(
+                ROOT_KEY,
+                new JsonObject()
+                    .put(SENTINELS_KEY, artifact.getJsonObject(SENTINELS_KEY))
+                    .put(PLACEHOLDERS_KEY, artifact.getJsonArray(PLACEHOLDERS_KEY))
+                    .put(CONFIG_KEY, artifact.getJsonObject(CONFIG_KEY))));
+  }
+
+  /**
+   * @param config configuration
+   * @return whether the configuration was created with {@linkplain #toConfig(JsonObject)}
+   */
+  static boolean isPrecompiled(Config config) {
+    return config.root().containsKey(ROOT_KEY);
+  }
+
+  /**
+   * Replace placeholders with ports from the <code>test</code> section with overrides applied.
+   *
+   * @param config configuration created with {@linkplain #toConfig(JsonObject)}
+   * @param overrides ports overrides, applied in order
+   * @return resolved configuration
+   */
+  static JsonObject resolve(Config config, List<JsonObject> overrides) {
+    ConfigObject precompiled = (ConfigObject) config.root().get(ROOT_KEY);
+
+    Config test = config.root().withoutKey(ROOT_KEY).toConfig();
+    for (JsonObject override : overrides) {
+      test = HoconUtil.toConfig(override).withFallback(test);
+    }
+    test = test.resolve();
+
+    Map<String, Integer> ports = new HashMap<>();
+    for (String path :
+        HoconUtil.toJsonObject((ConfigObject) precompiled.get(SENTINELS_KEY)).fieldNames()) {
+      ports.put(placeholder(path), test.getInt(path));
+    }
+
+    JsonObject resolved = HoconUtil.toJsonObject((ConfigObject) precompiled.get(CONFIG_KEY));
+    for (Object path : config.getList(ROOT_KEY + "." + PLACEHOLDERS_KEY).unwrapped()) {
+      replacePlaceholders(resolved, (List<?>) path, ports);
+    }
+    return resolved;
+  }
+
+  private static void replacePlaceholders(
+      JsonObject config, List<?> path, Map<String, Integer> ports) {
+    Object parent = config;
+    for (Object key : path.subList(0, path.size() - 1)) {
+      parent = child(parent, key);
+    }
+    Object last = path.get(path.size() - 1);
+    String text = (String) child(parent, last);
+
+    Object value;
+    if (ports.containsKey(text)) {
+      // the whole value was a port
+      value = ports.get(text);
+    } else {
+      for (Map.Entry<String, Integer> port : ports.entrySet()) {
+        text = text.replace(port.getKey(), String.valueOf(port.getValue()));
+      }
+      value = text;
+    }
+
+    if (parent instanceof JsonObject) {
+      ((JsonObject) parent).put((String) last, value);
+    } else {
+      ((JsonArray) parent).getList().set(((Number) last).intValue(), value);
+    }
+  }
+
+  private static Object child(Object parent, Object key) {
+    return parent instanceof JsonObject
+        ? ((JsonObject) parent).getValue((String) key)
+        : ((JsonArray) parent).getValue(((Number) key).intValue());
+  }
+
+  private static Optional<JsonObject> load(String name) {
+    ClassLoader classLoader =
+        MoreObjects.firstNonNull(
+            Thread.currentThread().getContextClassLoader(),
+            KnotxPrecompiledConfig.class.getClassLoader());
+    URL resource = classLoader.getResource(name);
+
+    if (resource == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(new JsonObject(Resources.toString(resource, StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read precompiled configuration " + name, e);
+    }
+  }
+}
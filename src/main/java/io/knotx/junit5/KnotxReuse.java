@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+/**
+ * Defines how long a Knot.x instance deployed for {@linkplain KnotxApplyConfiguration} lives.
+ * More details can be found in README.md.
+ */
+public enum KnotxReuse {
+
+  /** New Knot.x instance is deployed for every test and closed once the test finishes. */
+  NONE,
+
+  /**
+   * Knot.x instance is shared by all tests in the class that resolve to the same configuration
+   * (including overrides), and is closed after all tests in the class are finished.
+   */
+  CLASS,
+
+  /**
+   * Knot.x instance is pooled for the whole test suite and shared by all tests that resolve to the
+   * same configuration. The pool size is limited by the {@code knotx.junit5.pool.maxSize}
+   * configuration parameter, least recently used instances are evicted first.
+   */
+  SUITE
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Deploys the Knot.x instance for the next test of a class while the current test runs.
+ *
+ * <p>Prediction rule: the next test has the configuration fingerprint of the current test. A
+ * prepared instance is taken only by a test with exactly that fingerprint; when the fingerprint
+ * differs, or no test takes it, the prepared instance is handed over to {@linkplain
+ * KnotxVertxCloser}.
+ * Configurations with static ports are not prepared, the port is bound by the current test.
+ */
+class KnotxSpeculativeDeployer implements CloseableResource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxSpeculativeDeployer.class);
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  private final String name;
+  private final KnotxVertxCloser closer;
+  private final KnotxTimings timings;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "knotx-speculative-deploy");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private String preparedFingerprint;
+  private CompletableFuture<KnotxDeployment> prepared;
+  private int hits;
+  private int misses;
+
+  /**
+   * @param name test class name used in statistics
+   * @param closer closes Vert.x instances of mispredicted deployments
+   * @param timings timings deploy durations of prepared instances are recorded to
+   */
+  KnotxSpeculativeDeployer(String name, KnotxVertxCloser closer, KnotxTimings timings) {
+    this.name = name;
+    this.closer = closer;
+    this.timings = timings;
+  }
+
+  /** @return timings background deployments should record to */
+  KnotxTimings timings() {
+    return timings;
+  }
+
+  /**
+   * Take the prepared instance, waiting until it is deployed.
+   *
+   * @param fingerprint configuration fingerprint of the current test
+   * @return prepared instance, empty when the prediction failed
+   */
+  synchronized Optional<KnotxDeployment> take(String fingerprint) {
+    CompletableFuture<KnotxDeployment> future = prepared;
+    boolean predicted = fingerprint.equals(preparedFingerprint);
+    prepared = null;
+    preparedFingerprint = null;
+
+    if (future == null) {
+      return Optional.empty();
+    }
+    if (!predicted) {
+      misses++;
+      discard(future);
+      return Optional.empty();
+    }
+
+    try {
+      KnotxDeployment deployment = future.join();
+      hits++;
+      return Optional.of(deployment);
+    } catch (CompletionException e) {
+      // e.g. a port bound by another process, deploy in the foreground
+      misses++;
+      LOGGER.debug("Speculative Knot.x deployment failed", e.getCause());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Start deploying the instance for the next test in the background, the previously prepared
+   * one is discarded.
+   *
+   * @param fingerprint predicted configuration fingerprint
+   * @param deploy deploys a new instance on its own Vert.x
+   */
+  synchronized void prepare(String fingerprint, Supplier<KnotxDeployment> deploy) {
+    if (prepared != null) {
+      discard(prepared);
+    }
+    preparedFingerprint = fingerprint;
+    prepared = CompletableFuture.supplyAsync(deploy, executor);
+  }
+
+  /** Discard the prepared instance and wait until it is handed over to the closer. */
+  @Override
+  public void close() throws InterruptedException {
+    synchronized (this) {
+      if (prepared != null) {
+        discard(prepared);
+        prepared = null;
+        preparedFingerprint = null;
+      }
+    }
+
+    executor.shutdown();
+    executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    synchronized (this) {
+      LOGGER.info(
+          String.format(
+              "Speculative Knot.x deployments [%s]: %d hits, %d misses", name, hits, misses));
+    }
+  }
+
+  private void discard(CompletableFuture<KnotxDeployment> future) {
+    // failed preparations have nothing to close
+    future.thenAccept(deployment -> closeAsync(deployment.getVertx()));
+  }
+
+  private void closeAsync(Vertx vertx) {
+    closer.closeAsyncOrFallback(vertx, timings);
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.knotx.junit5.util.ReflectUtil;
+import io.knotx.junit5.wiremock.ClasspathResourcesMockServer;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.extension.ParameterContext;
+
+/**
+ * Immutable metadata of a test class, computed once per class: Knot.x annotations declared for
+ * every method and constructor parameter, and WireMock server fields, including inherited ones.
+ * Extensions read it instead of reflecting on every callback.
+ */
+public final class KnotxTestDescriptor {
+
+  private static final String PORT = "port";
+
+  private static final ClassValue<KnotxTestDescriptor> DESCRIPTORS =
+      new ClassValue<KnotxTestDescriptor>() {
+        @Override
+        protected KnotxTestDescriptor computeValue(Class<?> type) {
+          return new KnotxTestDescriptor(type);
+        }
+      };
+
+  private final List<Field> wiremockFields;
+  private final Map<Parameter, ParameterDescriptor> parameters;
+  private final Set<List<String>> configChains;
+
+  private KnotxTestDescriptor(Class<?> testClass) {
+    this.wiremockFields = Collections.unmodifiableList(findWiremockFields(testClass));
+
+    Map<Parameter, ParameterDescriptor> descriptors = new HashMap<>();
+    Stream.concat(
+            Arrays.stream(testClass.getDeclaredMethods()),
+            Arrays.stream(testClass.getDeclaredConstructors()))
+        .flatMap(executable -> Arrays.stream(executable.getParameters()))
+        .forEach(parameter -> descriptors.put(parameter, new ParameterDescriptor(parameter)));
+    this.parameters = Collections.unmodifiableMap(descriptors);
+
+    // inherited test methods are resolved against the class declaring them
+    Class<?> superclass = testClass.getSuperclass();
+    Stream<List<String>> inheritedChains =
+        superclass == null || superclass == Object.class
+            ? Stream.empty()
+            : of(superclass).getConfigChains().stream();
+    this.configChains =
+        Collections.unmodifiableSet(
+            Stream.concat(
+                    descriptors.values().stream()
+                        .flatMap(KnotxTestDescriptor::withMatrixVariants)
+                        .filter(paths -> !paths.isEmpty()),
+                    inheritedChains)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+  }
+
+  private static Stream<List<String>> withMatrixVariants(ParameterDescriptor descriptor) {
+    if (descriptor.matrixVariants.isEmpty() || descriptor.configPaths.isEmpty()) {
+      return Stream.of(descriptor.configPaths);
+    }
+
+    return descriptor.matrixVariants.stream()
+        .map(
+            variant -> {
+              List<String> chain = new ArrayList<>(descriptor.configPaths);
+              chain.add(variant);
+              return chain;
+            });
+  }
+
+  /**
+   * @param testClass test class
+   * @return descriptor of given class
+   */
+  public static KnotxTestDescriptor of(Class<?> testClass) {
+    return DESCRIPTORS.get(testClass);
+  }
+
+  /**
+   * @param parameterContext resolved parameter
+   * @return descriptor of given parameter, taken from the class declaring its method
+   */
+  public static ParameterDescriptor of(ParameterContext parameterContext) {
+    Parameter parameter = parameterContext.getParameter();
+    return of(parameter.getDeclaringExecutable().getDeclaringClass()).getParameter(parameter);
+  }
+
+  /**
+   * @return fields of type {@linkplain WireMockServer} annotated with {@linkplain
+   *     ClasspathResourcesMockServer}, declared in the class and its superclasses, accessible
+   */
+  public List<Field> getWiremockFields() {
+    return wiremockFields;
+  }
+
+  /**
+   * @return distinct, non empty configuration chains of all parameters declared in the class and
+   *     its superclasses, including every {@linkplain KnotxConfigMatrix} variant
+   */
+  public Set<List<String>> getConfigChains() {
+    return configChains;
+  }
+
+  ParameterDescriptor getParameter(Parameter parameter) {
+    ParameterDescriptor descriptor = parameters.get(parameter);
+    // e.g. synthetic executables not listed as declared members
+    return descriptor != null ? descriptor : new ParameterDescriptor(parameter);
+  }
+
+  private static List<Field> findWiremockFields(Class<?> testClass) {
+    List<Field> fields = new ArrayList<>();
+
+    for (Class<?> type = testClass; type != null; type = type.getSuperclass()) {
+      ReflectUtil.forEachWiremockFields(
+          type,
+          field -> {
+            field.setAccessible(true);
+            fields.add(field);
+          });
+    }
+    return fields;
+  }
+
+  /** Knot.x metadata of a single parameter, resolved against its method and class. */
+  public static final class ParameterDescriptor {
+
+    private final String name;
+    private final List<String> configPaths;
+    private final KnotxReuse reuse;
+    private final Optional<KnotxVertxOptions> vertxOptions;
+    private final List<String> modules;
+    private final List<String> matrixVariants;
+    private final boolean randomPort;
+    private final String randomPortService;
+    private final Optional<ClasspathResourcesMockServer> wiremock;
+
+    private ParameterDescriptor(Parameter parameter) {
+      Executable executable = parameter.getDeclaringExecutable();
+      Class<?> declaringClass = executable.getDeclaringClass();
+
+      List<KnotxApplyConfiguration> chain =
+          Stream.of(
+                  declaringClass.getAnnotation(KnotxApplyConfiguration.class),
+                  executable.getAnnotation(KnotxApplyConfiguration.class),
+                  parameter.getAnnotation(KnotxApplyConfiguration.class))
+              .filter(Objects::nonNull)
+              .collect(Collectors.toList());
+
+      this.name = parameter.getName();
+      this.configPaths = Collections.unmodifiableList(resolveConfigPaths(chain));
+      this.reuse = resolveReuse(chain);
+      this.vertxOptions =
+          mostSpecific(
+              parameter.getAnnotation(KnotxVertxOptions.class),
+              executable.getAnnotation(KnotxVertxOptions.class),
+              declaringClass.getAnnotation(KnotxVertxOptions.class));
+      this.modules =
+          mostSpecific(
+                  parameter.getAnnotation(KnotxModules.class),
+                  executable.getAnnotation(KnotxModules.class),
+                  declaringClass.getAnnotation(KnotxModules.class))
+              .map(annotation -> Collections.unmodifiableList(Arrays.asList(annotation.value())))
+              .orElse(Collections.emptyList());
+      this.matrixVariants =
+          Optional.ofNullable(executable.getAnnotation(KnotxConfigMatrix.class))
+              .map(annotation -> Collections.unmodifiableList(Arrays.asList(annotation.value())))
+              .orElse(Collections.emptyList());
+      this.randomPort = parameter.isAnnotationPresent(RandomPort.class);
+      this.randomPortService =
+          StringUtils.endsWithIgnoreCase(name, PORT)
+              ? StringUtils.removeEndIgnoreCase(name, PORT)
+              : null;
+      this.wiremock =
+          Optional.ofNullable(parameter.getAnnotation(ClasspathResourcesMockServer.class));
+    }
+
+    /**
+     * Developer announcement: This method could be worse, but enables us to apply a whole chain
+     * of different configurations taken from class, method, and parameter. User friendliness is a
+     * plus.
+     */
+    private static List<String> resolveConfigPaths(List<KnotxApplyConfiguration> chain) {
+      List<String> result = new ArrayList<>();
+
+      for (KnotxApplyConfiguration config : chain) {
+        Collections.addAll(result, config.value());
+      }
+
+      return result;
+    }
+
+    private static KnotxReuse resolveReuse(List<KnotxApplyConfiguration> chain) {
+      KnotxReuse result = KnotxReuse.NONE;
+
+      // the most specific declaration wins
+      for (KnotxApplyConfiguration config : chain) {
+        if (config.reuse() != KnotxReuse.NONE) {
+          result = config.reuse();
+        }
+      }
+
+      return result;
+    }
+
+    @SafeVarargs
+    private static <T> Optional<T> mostSpecific(T... annotations) {
+      return Arrays.stream(annotations).filter(Objects::nonNull).findFirst();
+    }
+
+    /**
+     * @return parameter name
+     * @throws IllegalStateException when compiled without parameter names
+     */
+    public String getName() {
+      if (name.startsWith("arg")) {
+        throw new IllegalStateException(
+            "Please configure 'options.compilerArgs << \"-parameters\"', please check the README file.");
+      }
+      return name;
+    }
+
+    /** @return configuration paths from class, method and parameter annotations, in this order */
+    public List<String> getConfigPaths() {
+      return configPaths;
+    }
+
+    /** @return the most specific reuse mode declared */
+    public KnotxReuse getReuse() {
+      return reuse;
+    }
+
+    /** @return the most specific Vert.x options annotation */
+    public Optional<KnotxVertxOptions> getVertxOptions() {
+      return vertxOptions;
+    }
+
+    /** @return modules to deploy, empty when all modules are deployed */
+    public List<String> getModules() {
+      return modules;
+    }
+
+    /** @return whether the parameter is annotated with {@linkplain RandomPort} */
+    public boolean isRandomPort() {
+      return randomPort;
+    }
+
+    /**
+     * @return name of the {@code test.random} service the {@linkplain RandomPort} parameter
+     *     refers to, i.e. the parameter name without the 'port' suffix
+     */
+    public String getRandomPortService() {
+      getName();
+
+      if (randomPortService == null) {
+        throw new IllegalArgumentException(
+            "Requirement: Variable name must end with 'port' for valid value injection");
+      }
+      return randomPortService;
+    }
+
+    /** @return WireMock server annotation of the parameter */
+    public Optional<ClasspathResourcesMockServer> getWiremock() {
+      return wiremock;
+    }
+  }
+}
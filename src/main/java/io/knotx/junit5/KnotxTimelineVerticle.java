@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.ClassUtils;
+
+/**
+ * Deploys the Knot.x starter with a Vert.x instance that records every verticle deployment the
+ * starter makes in a {@linkplain DeploymentTimeline}. Deployed modules get the original instance.
+ */
+class KnotxTimelineVerticle implements Verticle {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxTimelineVerticle.class);
+
+  private static final String DEPLOY_VERTICLE = "deployVerticle";
+
+  private final Verticle delegate;
+  private final DeploymentTimeline timeline;
+  private final Map<String, String> modulesByVerticle;
+
+  /**
+   * @param delegate Knot.x starter
+   * @param timeline timeline deployments are recorded to
+   * @param modulesByVerticle module names from the configuration, by verticle name
+   */
+  KnotxTimelineVerticle(
+      Verticle delegate, DeploymentTimeline timeline, Map<String, String> modulesByVerticle) {
+    this.delegate = delegate;
+    this.timeline = timeline;
+    this.modulesByVerticle = modulesByVerticle;
+  }
+
+  @Override
+  public Vertx getVertx() {
+    return delegate.getVertx();
+  }
+
+  @Override
+  public void init(Vertx vertx, Context context) {
+    delegate.init(observe(vertx), context);
+  }
+
+  @Override
+  public void start(Future<Void> startFuture) throws Exception {
+    delegate.start(startFuture);
+  }
+
+  @Override
+  public void stop(Future<Void> stopFuture) throws Exception {
+    delegate.stop(stopFuture);
+  }
+
+  private Vertx observe(Vertx vertx) {
+    // all interfaces, so casts to Vert.x internals keep working
+    List<Class<?>> interfaces = ClassUtils.getAllInterfaces(vertx.getClass());
+    return (Vertx)
+        Proxy.newProxyInstance(
+            Vertx.class.getClassLoader(),
+            interfaces.toArray(new Class<?>[0]),
+            (proxy, method, args) -> {
+              if (DEPLOY_VERTICLE.equals(method.getName()) && args != null) {
+                return observeDeployment(vertx, method, args);
+              }
+              return invoke(vertx, method, args);
+            });
+  }
+
+  /**
+   * Deployments without a completion handler are made with the overload taking one, so every
+   * recorded deployment is finished.
+   */
+  @SuppressWarnings("unchecked")
+  private Object observeDeployment(Vertx vertx, Method method, Object[] args) throws Throwable {
+    String verticle = verticleName(args[0]);
+    DeploymentTimeline.Entry entry = timeline.started(moduleName(verticle), verticle);
+
+    Class<?>[] types = method.getParameterTypes();
+    int last = types.length - 1;
+    if (last > 0 && types[last] == Handler.class) {
+      Handler<AsyncResult<String>> completionHandler = (Handler<AsyncResult<String>>) args[last];
+      args[last] =
+          (Handler<AsyncResult<String>>)
+              ar -> {
+                entry.finish(ar.succeeded());
+                if (completionHandler != null) {
+                  completionHandler.handle(ar);
+                }
+              };
+      return invoke(vertx, method, args);
+    }
+
+    Object[] argsWithHandler = Arrays.copyOf(args, args.length + 1);
+    argsWithHandler[args.length] =
+        (Handler<AsyncResult<String>>)
+            ar -> {
+              entry.finish(ar.succeeded());
+              if (ar.failed()) {
+                // Vert.x logs failures of deployments without a completion handler
+                LOGGER.error("Failed to deploy " + verticle, ar.cause());
+              }
+            };
+    Class<?>[] typesWithHandler = Arrays.copyOf(types, types.length + 1);
+    typesWithHandler[types.length] = Handler.class;
+    return invoke(
+        vertx, Vertx.class.getMethod(DEPLOY_VERTICLE, typesWithHandler), argsWithHandler);
+  }
+
+  private String verticleName(Object verticle) {
+    if (verticle instanceof String) {
+      return (String) verticle;
+    }
+    if (verticle instanceof Class) {
+      return ((Class<?>) verticle).getName();
+    }
+    return verticle.getClass().getName();
+  }
+
+  private String moduleName(String verticle) {
+    String module = modulesByVerticle.get(verticle);
+    if (module == null && verticle.contains(":")) {
+      // verticle factory prefix, e.g. 'java:'
+      module = modulesByVerticle.get(verticle.substring(verticle.indexOf(':') + 1));
+    }
+    return module != null ? module : verticle;
+  }
+
+  private static Object invoke(Vertx vertx, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(vertx, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.vertx.core.json.JsonObject;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+
+/**
+ * Monotonic timers of Knot.x test lifecycle phases, collected per extension context. When enabled
+ * with the {@code knotx.junit5.timings.enabled} configuration parameter, timings are published as
+ * JUnit report entries and aggregated per class and per suite in a JSON file.
+ */
+public final class KnotxTimings {
+
+  static final String ENABLED_PARAMETER = "knotx.junit5.timings.enabled";
+
+  private static final String REPORT_ENTRY_PREFIX = "knotx.";
+  private static final String REPORT_ENTRY_SUFFIX = ".ms";
+
+  /** Measured phases */
+  public enum Phase {
+    CONFIG_READ("config.read"),
+    CONFIG_PARSE("config.parse"),
+    WIREMOCK_START("wiremock.start"),
+    RANDOM_PORTS("random.ports"),
+    DEPLOY("deploy"),
+    VERTX_CLOSE("vertx.close");
+
+    private final String key;
+
+    Phase(String key) {
+      this.key = key;
+    }
+
+    public String getKey() {
+      return key;
+    }
+  }
+
+  private final Map<Phase, LongAdder> nanos = new EnumMap<>(Phase.class);
+  private final Map<Phase, LongAdder> counts = new EnumMap<>(Phase.class);
+  private final boolean enabled;
+
+  KnotxTimings(boolean enabled) {
+    this.enabled = enabled;
+    for (Phase phase : Phase.values()) {
+      nanos.put(phase, new LongAdder());
+      counts.put(phase, new LongAdder());
+    }
+  }
+
+  /** @return timings that are never published nor aggregated */
+  public static KnotxTimings disabled() {
+    return new KnotxTimings(false);
+  }
+
+  /**
+   * Get timings of given context, create them when missing.
+   *
+   * @param context extension context, timings are not shared with parent or child contexts
+   * @return timings of given context
+   */
+  public static KnotxTimings of(ExtensionContext context) {
+    return context
+        .getStore(Namespace.create(KnotxTimings.class, context))
+        .getOrComputeIfAbsent(KnotxTimings.class, key -> create(context), KnotxTimings.class);
+  }
+
+  private static KnotxTimings create(ExtensionContext context) {
+    boolean enabled =
+        context.getConfigurationParameter(ENABLED_PARAMETER).map(Boolean::parseBoolean).orElse(false);
+    KnotxTimings timings = new KnotxTimings(enabled);
+
+    if (enabled) {
+      String owner = context.getTestClass().map(Class::getName).orElse(KnotxTimingsReport.SUITE);
+      KnotxTimingsReport.of(context).register(owner, timings);
+    }
+    return timings;
+  }
+
+  /** @return whether timings are published and aggregated */
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param phase measured phase
+   * @param startNanos {@linkplain System#nanoTime()} taken when the phase started
+   */
+  public void record(Phase phase, long startNanos) {
+    nanos.get(phase).add(System.nanoTime() - startNanos);
+    counts.get(phase).increment();
+  }
+
+  public <T> T time(Phase phase, Supplier<T> action) {
+    long start = System.nanoTime();
+    try {
+      return action.get();
+    } finally {
+      record(phase, start);
+    }
+  }
+
+  public void time(Phase phase, Runnable action) {
+    long start = System.nanoTime();
+    try {
+      action.run();
+    } finally {
+      record(phase, start);
+    }
+  }
+
+  /**
+   * Publish measured phases as a JUnit report entry, when timings are enabled.
+   *
+   * @param context context to publish the entry for
+   */
+  public void publish(ExtensionContext context) {
+    if (!enabled) {
+      return;
+    }
+
+    Map<String, String> entry = new LinkedHashMap<>();
+    for (Phase phase : Phase.values()) {
+      if (counts.get(phase).sum() > 0) {
+        entry.put(
+            REPORT_ENTRY_PREFIX + phase.getKey() + REPORT_ENTRY_SUFFIX,
+            String.valueOf(toMillis(nanos.get(phase).sum())));
+      }
+    }
+
+    if (!entry.isEmpty()) {
+      context.publishReportEntry(entry);
+    }
+  }
+
+  void addTo(KnotxTimings aggregate) {
+    for (Phase phase : Phase.values()) {
+      aggregate.nanos.get(phase).add(nanos.get(phase).sum());
+      aggregate.counts.get(phase).add(counts.get(phase).sum());
+    }
+  }
+
+  JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    for (Phase phase : Phase.values()) {
+      json.put(
+          phase.getKey(),
+          new JsonObject()
+              .put("count", counts.get(phase).sum())
+              .put("totalMs", toMillis(nanos.get(phase).sum())));
+    }
+    return json;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.google.common.cache.CacheStats;
+import io.knotx.junit5.wiremock.KnotxWiremockExtension;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Aggregates {@linkplain KnotxTimings} per test class and for the whole suite, and writes them as
+ * JSON when the test suite finishes.
+ */
+class KnotxTimingsReport implements CloseableResource {
+
+  static final String SUITE = "suite";
+
+  private static final String FILE_PARAMETER = "knotx.junit5.timings.file";
+  private static final String DEFAULT_FILE = "build/knotx-junit5/timings.json";
+  private static final String TRACE_FILE = "deployments.trace.json";
+
+  private final Path file;
+  private final ExtensionContext rootContext;
+  private final Queue<Entry<String, KnotxTimings>> registered = new ConcurrentLinkedQueue<>();
+  // deployments made for a single test, named after it
+  private final Map<DeploymentTimeline, String> timelines =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  private KnotxTimingsReport(Path file, ExtensionContext rootContext) {
+    this.file = file;
+    this.rootContext = rootContext;
+  }
+
+  static KnotxTimingsReport of(ExtensionContext context) {
+    ExtensionContext root = context.getRoot();
+    Path file = Paths.get(context.getConfigurationParameter(FILE_PARAMETER).orElse(DEFAULT_FILE));
+
+    return root.getStore(Namespace.create(KnotxTimingsReport.class))
+        .getOrComputeIfAbsent(
+            KnotxTimingsReport.class,
+            key -> new KnotxTimingsReport(file, root),
+            KnotxTimingsReport.class);
+  }
+
+  void register(String owner, KnotxTimings timings) {
+    registered.add(new SimpleEntry<>(owner, timings));
+  }
+
+  void register(String owner, DeploymentTimeline timeline) {
+    timelines.putIfAbsent(timeline, owner);
+  }
+
+  @Override
+  public void close() throws Exception {
+    // Vert.x close timings are recorded when background closes finish
+    KnotxVertxCloser.find(rootContext).ifPresent(KnotxTimingsReport::awaitQuietly);
+
+    KnotxTimings suite = new KnotxTimings(false);
+    Map<String, KnotxTimings> classes = new TreeMap<>();
+
+    for (Entry<String, KnotxTimings> entry : registered) {
+      entry.getValue().addTo(suite);
+      entry.getValue().addTo(classes.computeIfAbsent(entry.getKey(), k -> new KnotxTimings(false)));
+    }
+
+    JsonObject classesJson = new JsonObject();
+    classes.forEach((owner, timings) -> classesJson.put(owner, timings.toJson()));
+
+    JsonObject json =
+        new JsonObject()
+            .put(SUITE, suite.toJson())
+            .put("classes", classesJson)
+            .put(
+                "caches",
+                new JsonObject()
+                    .put("parsedConfig", toJson(KnotxConcatConfigProcessor.parsedConfigStats()))
+                    .put("mergedConfig", toJson(KnotxConcatConfigProcessor.mergedConfigStats()))
+                    .put("wiremockBody", toJson(KnotxWiremockExtension.bodyCacheStats())));
+
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    Files.write(file, json.encodePrettily().getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        file.resolveSibling(TRACE_FILE), toTrace().encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Deployment timelines in the Chrome trace event format, one process per deploying test */
+  private JsonObject toTrace() {
+    JsonArray events = new JsonArray();
+    int pid = 0;
+    synchronized (timelines) {
+      for (Entry<DeploymentTimeline, String> entry : timelines.entrySet()) {
+        pid++;
+        events.add(
+            new JsonObject()
+                .put("name", "process_name")
+                .put("ph", "M")
+                .put("pid", pid)
+                .put("args", new JsonObject().put("name", entry.getValue())));
+        events.addAll(entry.getKey().toTraceEvents(pid));
+      }
+    }
+    return new JsonObject().put("traceEvents", events).put("displayTimeUnit", "ms");
+  }
+
+  private static JsonObject toJson(CacheStats stats) {
+    return new JsonObject()
+        .put("hits", stats.hitCount())
+        .put("misses", stats.missCount())
+        .put("evictions", stats.evictionCount());
+  }
+
+  private static void awaitQuietly(KnotxVertxCloser closer) {
+    try {
+      closer.awaitPending();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      // failures are reported by the closer itself
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import io.knotx.junit5.KnotxTimings.Phase;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Closes Vert.x instances in the background, so the next test does not wait for the previous one
+ * to tear down. The number of instances being closed at the same time is bounded, when the backlog
+ * is full the caller waits for a free slot. Stored in the root context, closing it waits for all
+ * pending instances and reports failures.
+ */
+class KnotxVertxCloser implements CloseableResource {
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+  private static final Namespace NAMESPACE = Namespace.create(KnotxVertxCloser.class);
+
+  private final Semaphore backlog;
+  private final Set<CompletableFuture<Void>> pending = new HashSet<>();
+  private final List<Throwable> failures = new ArrayList<>();
+
+  /** @param maxPending maximum number of instances being closed at the same time */
+  KnotxVertxCloser(int maxPending) {
+    this.backlog = new Semaphore(maxPending);
+  }
+
+  /**
+   * Get closer stored in the root context, create it when missing.
+   *
+   * @param context any extension context
+   * @param maxPending maximum number of instances being closed at the same time
+   * @return closer for the whole test suite
+   */
+  static KnotxVertxCloser of(ExtensionContext context, int maxPending) {
+    return context
+        .getRoot()
+        .getStore(NAMESPACE)
+        .getOrComputeIfAbsent(
+            KnotxVertxCloser.class, key -> new KnotxVertxCloser(maxPending), KnotxVertxCloser.class);
+  }
+
+  /**
+   * @param context any extension context
+   * @return closer stored in the root context, if it was created
+   */
+  static Optional<KnotxVertxCloser> find(ExtensionContext context) {
+    return Optional.ofNullable(
+        context.getRoot().getStore(NAMESPACE).get(KnotxVertxCloser.class, KnotxVertxCloser.class));
+  }
+
+  /**
+   * Start closing given Vert.x instance without waiting for the result.
+   *
+   * @param vertx instance to close
+   * @param timings timings the close duration is recorded to
+   * @throws InterruptedException when interrupted while waiting for a free backlog slot
+   */
+  void closeAsync(Vertx vertx, KnotxTimings timings) throws InterruptedException {
+    backlog.acquire();
+    long start = System.nanoTime();
+
+    CompletableFuture<Void> toComplete = new CompletableFuture<>();
+    synchronized (pending) {
+      pending.add(toComplete);
+    }
+
+    vertx.close(
+        ar -> {
+          timings.record(Phase.VERTX_CLOSE, start);
+          synchronized (pending) {
+            pending.remove(toComplete);
+            if (ar.failed()) {
+              failures.add(ar.cause());
+            }
+          }
+          backlog.release();
+          toComplete.complete(null);
+        });
+  }
+
+  /**
+   * Start closing given Vert.x instance without waiting for the result. When interrupted while
+   * waiting for a free backlog slot, the instance is closed without being tracked and the
+   * interrupt flag is restored.
+   *
+   * @param vertx instance to close
+   * @param timings timings the close duration is recorded to
+   */
+  void closeAsyncOrFallback(Vertx vertx, KnotxTimings timings) {
+    try {
+      closeAsync(vertx, timings);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      vertx.close();
+    }
+  }
+
+  /**
+   * Wait until all instances handed over so far are closed and report failures.
+   *
+   * @throws VertxException when any instance failed to close
+   * @throws TimeoutException when instances are not closed in time
+   * @throws InterruptedException when interrupted while waiting
+   */
+  void awaitAll() throws TimeoutException, InterruptedException {
+    awaitPending();
+
+    List<Throwable> reported;
+    synchronized (pending) {
+      reported = new ArrayList<>(failures);
+      failures.clear();
+    }
+
+    if (!reported.isEmpty()) {
+      VertxException exception =
+          new VertxException(reported.size() + " Vertx instance(s) failed to close");
+      reported.forEach(exception::addSuppressed);
+      throw exception;
+    }
+  }
+
+  /**
+   * Wait until all instances handed over so far are closed, failures are kept for {@linkplain
+   * #awaitAll()}.
+   *
+   * @throws TimeoutException when instances are not closed in time
+   * @throws InterruptedException when interrupted while waiting
+   */
+  void awaitPending() throws TimeoutException, InterruptedException {
+    CompletableFuture<Void> all;
+    synchronized (pending) {
+      all = CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+    }
+
+    try {
+      all.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      // never happens, close results are collected as failures
+      throw new VertxException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new TimeoutException("Closing the Vertx contexts timed out");
+    }
+  }
+
+  @Override
+  public void close() throws TimeoutException, InterruptedException {
+    awaitAll();
+  }
+}
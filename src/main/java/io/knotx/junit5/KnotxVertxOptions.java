@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sizes the Vert.x instance Knot.x is deployed on. The most specific annotation (parameter, then
+ * method, then class) is used. Attributes left with default values are taken from the {@linkplain
+ * #preset()}. More details can be found in README.md.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.PARAMETER})
+public @interface KnotxVertxOptions {
+
+  /** Value meaning the attribute is taken from the preset */
+  int FROM_PRESET = -1;
+
+  /** Base settings the explicitly declared attributes are applied on top of. */
+  enum Preset {
+    /** Vert.x defaults, 2 x cores event loops and 20 worker threads. */
+    DEFAULT,
+    /** Small pools for tests that do not need full parallelism. */
+    LIGHTWEIGHT
+  }
+
+  /**
+   * @return preset the other attributes are applied on
+   */
+  Preset preset() default Preset.DEFAULT;
+
+  /**
+   * @return event loop threads number
+   */
+  int eventLoopPoolSize() default FROM_PRESET;
+
+  /**
+   * @return worker pool threads number
+   */
+  int workerPoolSize() default FROM_PRESET;
+
+  /**
+   * @return internal blocking pool threads number
+   */
+  int internalBlockingPoolSize() default FROM_PRESET;
+
+  /**
+   * @return blocked thread checker interval in milliseconds
+   */
+  long blockedThreadCheckInterval() default FROM_PRESET;
+
+  /**
+   * Use native transport (e.g. epoll on Linux) when available on the classpath.
+   *
+   * @return whether native transport is preferred
+   */
+  boolean preferNativeTransport() default false;
+}
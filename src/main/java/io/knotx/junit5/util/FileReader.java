@@ -33,6 +33,17 @@ public final class FileReader {
     return Resources.toString(Resources.getResource(path), StandardCharsets.UTF_8);
   }
 
+  /**
+   * Read contents of resource as bytes, without decoding them.
+   *
+   * @param path resource path
+   * @return resource contents
+   * @throws IOException resource can not be read
+   */
+  public static byte[] readBytes(String path) throws IOException {
+    return Resources.toByteArray(Resources.getResource(path));
+  }
+
   /**
    * Same as {@linkplain #readText(String)}, but throws unchecked exception instead
    *
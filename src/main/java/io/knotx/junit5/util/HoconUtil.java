@@ -16,14 +16,123 @@
 package io.knotx.junit5.util;
 
 import com.typesafe.config.Config;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /** Easing access to HOCON structures */
 public final class HoconUtil {
 
+  /** Same keys order as in rendered HOCON: numeric keys first, in numeric order, then others */
+  private static final Comparator<String> KEYS_ORDER =
+      (first, second) -> {
+        boolean firstNumeric = isNumeric(first);
+        boolean secondNumeric = isNumeric(second);
+
+        if (firstNumeric && secondNumeric) {
+          int result = new BigInteger(first).compareTo(new BigInteger(second));
+          return result != 0 ? result : first.compareTo(second);
+        }
+        if (firstNumeric != secondNumeric) {
+          return firstNumeric ? -1 : 1;
+        }
+        return first.compareTo(second);
+      };
+
   /** Util class */
   private HoconUtil() {}
 
+  /**
+   * Convert resolved HOCON object to JSON by walking the tree, without rendering it to a string and
+   * parsing it back. The result is equal to <code>new JsonObject(object.render(json))</code>.
+   *
+   * @param object resolved HOCON object, e.g. <code>config.root()</code>
+   * @return JSON object
+   */
+  public static JsonObject toJsonObject(ConfigObject object) {
+    JsonObject json = new JsonObject();
+
+    object.keySet().stream()
+        .sorted(KEYS_ORDER)
+        .forEach(key -> json.put(key, toJsonValue(object.get(key))));
+
+    return json;
+  }
+
+  /**
+   * Convert JSON to HOCON config as structured values, without encoding it to a string and parsing
+   * it back. Keys are not split into paths, the same as for keys of a parsed JSON object.
+   *
+   * @param json JSON object
+   * @return HOCON config with the same structure
+   */
+  public static Config toConfig(JsonObject json) {
+    return ConfigValueFactory.fromMap(toMap(json.getMap())).toConfig();
+  }
+
+  private static Map<String, Object> toMap(Map<String, Object> map) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    map.forEach((key, value) -> result.put(key, toConfigValue(value)));
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object toConfigValue(Object value) {
+    if (value instanceof JsonObject) {
+      return toMap(((JsonObject) value).getMap());
+    }
+    if (value instanceof Map) {
+      return toMap((Map<String, Object>) value);
+    }
+    if (value instanceof JsonArray) {
+      return toList(((JsonArray) value).getList());
+    }
+    if (value instanceof List) {
+      return toList((List<Object>) value);
+    }
+    return value;
+  }
+
+  private static List<Object> toList(List<Object> list) {
+    List<Object> result = new ArrayList<>(list.size());
+    list.forEach(value -> result.add(toConfigValue(value)));
+    return result;
+  }
+
+  private static JsonArray toJsonArray(ConfigList list) {
+    JsonArray json = new JsonArray();
+
+    for (ConfigValue value : list) {
+      json.add(toJsonValue(value));
+    }
+    return json;
+  }
+
+  private static Object toJsonValue(ConfigValue value) {
+    switch (value.valueType()) {
+      case OBJECT:
+        return toJsonObject((ConfigObject) value);
+      case LIST:
+        return toJsonArray((ConfigList) value);
+      default:
+        // string, number, boolean or null
+        return value.unwrapped();
+    }
+  }
+
+  private static boolean isNumeric(String key) {
+    return !key.isEmpty() && key.chars().allMatch(Character::isDigit);
+  }
+
   /**
    * Retrieve string if present, or return default value
    *
@@ -39,6 +148,37 @@ public final class HoconUtil {
     return orDefault;
   }
 
+  /**
+   * Retrieve boolean if present, or return default value
+   *
+   * @param config complete HOCON config
+   * @param path where to look for value
+   * @param orDefault default return value if not found under path
+   * @return config boolean
+   */
+  public static boolean getBooleanOrDefault(Config config, String path, boolean orDefault) {
+    if (config.hasPath(path)) {
+      return config.getBoolean(path);
+    }
+    return orDefault;
+  }
+
+  /**
+   * Retrieve size in bytes if present, or return default value. Sizes with units, e.g. {@code 16M},
+   * are supported.
+   *
+   * @param config complete HOCON config
+   * @param path where to look for value
+   * @param orDefault default return value if not found under path
+   * @return config size in bytes
+   */
+  public static long getBytesOrDefault(Config config, String path, long orDefault) {
+    if (config.hasPath(path)) {
+      return config.getBytes(path);
+    }
+    return orDefault;
+  }
+
   /**
    * Retrieve object if present, or return default value
    *
@@ -25,20 +25,12 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.function.Consumer;
 import org.apache.commons.lang3.StringUtils;
-import org.junit.jupiter.api.extension.ParameterContext;
 
 public final class ReflectUtil {
 
   /** Util class */
   private ReflectUtil() {}
 
-  public static ClasspathResourcesMockServer getWiremockAnnotation(
-      ParameterContext parameterContext) {
-    return parameterContext
-        .findAnnotation(ClasspathResourcesMockServer.class)
-        .orElseThrow(IllegalStateException::new);
-  }
-
   public static void forEachWiremockFields(Class<?> testClass, Consumer<Field> consumer) {
     Field[] fields = testClass.getDeclaredFields();
 
@@ -23,8 +23,15 @@ import com.github.tomakehurst.wiremock.http.HttpHeaders;
 import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.Response;
 import com.github.tomakehurst.wiremock.http.Response.Builder;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.AbstractCache.StatsCounter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableMap;
 import io.knotx.junit5.util.FileReader;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Map;
@@ -42,12 +49,25 @@ class KnotxFileSource extends ResponseTransformer {
           "json", "application/json",
           "txt", "text/plain");
 
+  /** Body cache statistics of all servers, also of the ones already stopped */
+  private static final StatsCounter BODY_CACHE_STATS = new SimpleStatsCounter();
+
   private boolean autodetectMime;
   private final KnotxMockConfig config;
+  /** Fixture bytes by resource path, <code>null</code> when disabled */
+  private final Cache<String, byte[]> bodies;
 
   KnotxFileSource(KnotxMockConfig config) {
     autodetectMime = KnotxMockConfig.MIMETYPE_AUTODETECT.equals(config.mimetype);
     this.config = config;
+    this.bodies = config.bodyCacheEnabled ? createBodyCache(config.bodyCacheMaxBytes) : null;
+  }
+
+  /**
+   * @return statistics of the response body caches, shared by all servers in the JVM
+   */
+  static CacheStats bodyCacheStats() {
+    return BODY_CACHE_STATS.snapshot();
   }
 
   @Override
@@ -74,11 +94,51 @@ class KnotxFileSource extends ResponseTransformer {
     builder.headers(httpHeaders);
 
     requestPath = StringUtils.removeStart(requestPath, "/");
-    String body = FileReader.readTextSafe(requestPath);
+    byte[] body = getBody(requestPath);
 
     return builder.body(body).build();
   }
 
+  private byte[] getBody(String path) {
+    if (bodies == null) {
+      return readBody(path);
+    }
+
+    byte[] body = bodies.getIfPresent(path);
+    if (body != null) {
+      BODY_CACHE_STATS.recordHits(1);
+      return body;
+    }
+
+    // concurrent misses of the same path may read it twice, which is cheaper than locking
+    BODY_CACHE_STATS.recordMisses(1);
+    body = readBody(path);
+    bodies.put(path, body);
+    return body;
+  }
+
+  private static byte[] readBody(String path) {
+    try {
+      return FileReader.readBytes(path);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not load text from [" + path + "]", e);
+    }
+  }
+
+  private static Cache<String, byte[]> createBodyCache(long maxBytes) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(maxBytes)
+        .<String, byte[]>weigher((path, body) -> body.length)
+        .removalListener(KnotxFileSource::onRemoval)
+        .build();
+  }
+
+  private static void onRemoval(RemovalNotification<String, byte[]> notification) {
+    if (notification.wasEvicted()) {
+      BODY_CACHE_STATS.recordEviction();
+    }
+  }
+
   private String getRequestPath(Request request) {
     String requestPath;
     try {
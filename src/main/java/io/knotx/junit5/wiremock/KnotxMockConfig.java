@@ -15,6 +15,8 @@
  */
 package io.knotx.junit5.wiremock;
 
+import static io.knotx.junit5.util.HoconUtil.getBooleanOrDefault;
+import static io.knotx.junit5.util.HoconUtil.getBytesOrDefault;
 import static io.knotx.junit5.util.HoconUtil.getObjectOrDefault;
 import static io.knotx.junit5.util.HoconUtil.getStringOrDefault;
 
@@ -26,6 +28,7 @@ import com.typesafe.config.Config;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -37,6 +40,7 @@ public class KnotxMockConfig {
   static final String MIMETYPE_AUTODETECT = "!autodetect";
   static final String URL_MATCHING_ALL = ".*";
   static final int RANDOM_PORT = Options.DYNAMIC_PORT;
+  static final long DEFAULT_BODY_CACHE_MAX_BYTES = 16L * 1024 * 1024;
 
   public final String reference;
   public final int port;
@@ -45,6 +49,8 @@ public class KnotxMockConfig {
   public final String mimetype;
   public final HttpHeaders additionalHeaders;
   public final String callToConfigure;
+  public final boolean bodyCacheEnabled;
+  public final long bodyCacheMaxBytes;
 
   KnotxMockConfig(String reference, int port) {
     this.reference = reference;
@@ -54,6 +60,8 @@ public class KnotxMockConfig {
     this.mimetype = MIMETYPE_AUTODETECT;
     this.additionalHeaders = HttpHeaders.noHeaders();
     this.callToConfigure = null;
+    this.bodyCacheEnabled = true;
+    this.bodyCacheMaxBytes = DEFAULT_BODY_CACHE_MAX_BYTES;
   }
 
   KnotxMockConfig(KnotxMockConfig parent, int newPort) {
@@ -64,6 +72,8 @@ public class KnotxMockConfig {
     this.mimetype = parent.mimetype;
     this.additionalHeaders = parent.additionalHeaders;
     this.callToConfigure = parent.callToConfigure;
+    this.bodyCacheEnabled = parent.bodyCacheEnabled;
+    this.bodyCacheMaxBytes = parent.bodyCacheMaxBytes;
   }
 
   private KnotxMockConfig(
@@ -73,7 +83,9 @@ public class KnotxMockConfig {
       String urlMatching,
       String mimetype,
       HttpHeaders additionalHeaders,
-      String callToConfigure) {
+      String callToConfigure,
+      boolean bodyCacheEnabled,
+      long bodyCacheMaxBytes) {
     this.reference = reference;
     this.port = port;
     this.prependRequestPath = prependRequestPath;
@@ -81,6 +93,30 @@ public class KnotxMockConfig {
     this.mimetype = mimetype;
     this.additionalHeaders = additionalHeaders;
     this.callToConfigure = callToConfigure;
+    this.bodyCacheEnabled = bodyCacheEnabled;
+    this.bodyCacheMaxBytes = bodyCacheMaxBytes;
+  }
+
+  /**
+   * @return key of servers interchangeable with a server set up with this configuration, null for
+   *     static ports, servers bound to them are not pooled
+   */
+  String getPoolKey() {
+    if (port != RANDOM_PORT) {
+      return null;
+    }
+    return String.join(
+        "|",
+        mimetype,
+        additionalHeaders.all().stream()
+            .map(HttpHeader::toString)
+            .sorted()
+            .collect(Collectors.joining(",")),
+        urlMatching,
+        prependRequestPath,
+        String.valueOf(callToConfigure),
+        String.valueOf(bodyCacheEnabled),
+        String.valueOf(bodyCacheMaxBytes));
   }
 
   static KnotxMockConfig createMockConfig(Config config, String reference, String base) {
@@ -113,7 +149,19 @@ public class KnotxMockConfig {
 
     callMethod = getStringOrDefault(config, base + ".callToConfigure", null);
 
+    boolean bodyCacheEnabled = getBooleanOrDefault(config, base + ".bodyCache.enabled", true);
+    long bodyCacheMaxBytes =
+        getBytesOrDefault(config, base + ".bodyCache.maxBytes", DEFAULT_BODY_CACHE_MAX_BYTES);
+
     return new KnotxMockConfig(
-        reference, port, prependRequestPath, urlMatching, mimetype, httpHeaders, callMethod);
+        reference,
+        port,
+        prependRequestPath,
+        urlMatching,
+        mimetype,
+        httpHeaders,
+        callMethod,
+        bodyCacheEnabled,
+        bodyCacheMaxBytes);
   }
 }
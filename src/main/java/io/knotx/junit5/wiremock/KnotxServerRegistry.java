@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.wiremock;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent registry of values indexed by the test class owning them and by their name within
+ * the class, so queries for one class cost as much as the number of its entries.
+ *
+ * @param <V> registered values
+ */
+final class KnotxServerRegistry<V> {
+
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, V>> owners =
+      new ConcurrentHashMap<>();
+  private final Supplier<? extends ConcurrentHashMap<String, V>> entriesFactory;
+
+  KnotxServerRegistry() {
+    this(ConcurrentHashMap::new);
+  }
+
+  /** @param entriesFactory creates the map of values of a new owner */
+  KnotxServerRegistry(Supplier<? extends ConcurrentHashMap<String, V>> entriesFactory) {
+    this.entriesFactory = entriesFactory;
+  }
+
+  V get(String owner, String name) {
+    Map<String, V> entries = owners.get(owner);
+    return entries == null ? null : entries.get(name);
+  }
+
+  void put(String owner, String name, V value) {
+    entries(owner).put(name, value);
+  }
+
+  /** @return value registered before, null when the given one was registered */
+  V putIfAbsent(String owner, String name, V value) {
+    return entries(owner).putIfAbsent(name, value);
+  }
+
+  void remove(String owner, String name, V value) {
+    Map<String, V> entries = owners.get(owner);
+    if (entries != null) {
+      entries.remove(name, value);
+    }
+  }
+
+  /** @return whether any value is registered for the owner */
+  boolean hasEntries(String owner) {
+    Map<String, V> entries = owners.get(owner);
+    return entries != null && !entries.isEmpty();
+  }
+
+  /** @return unmodifiable view of the owner's values by name */
+  Map<String, V> entriesOf(String owner) {
+    Map<String, V> entries = owners.get(owner);
+    return entries == null ? Collections.emptyMap() : Collections.unmodifiableMap(entries);
+  }
+
+  /** @return values of the owner by name, removed from the registry */
+  Map<String, V> removeOwner(String owner) {
+    Map<String, V> entries = owners.remove(owner);
+    return entries == null ? Collections.emptyMap() : entries;
+  }
+
+  private ConcurrentHashMap<String, V> entries(String owner) {
+    return owners.computeIfAbsent(owner, key -> entriesFactory.get());
+  }
+}
@@ -15,29 +15,40 @@
  */
 package io.knotx.junit5.wiremock;
 
-import static io.knotx.junit5.util.ReflectUtil.forEachWiremockFields;
-import static io.knotx.junit5.util.StreamUtil.anyKeyStartsWith;
-
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.typesafe.config.Config;
 import io.knotx.junit5.KnotxBaseExtension;
 import io.knotx.junit5.KnotxExtension;
+import io.knotx.junit5.KnotxTestDescriptor;
+import io.knotx.junit5.KnotxTimings;
+import io.knotx.junit5.KnotxTimings.Phase;
 import io.knotx.junit5.util.HoconUtil;
 import io.knotx.junit5.util.ReflectUtil;
-import io.knotx.junit5.util.StreamUtil;
 import io.vertx.core.json.JsonObject;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
@@ -57,11 +68,23 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
 
   private static final String WIREMOCK_NAMESPACE = "test.wiremock";
 
-  private static final ReentrantLock globalMapsLock = new ReentrantLock(true);
-  private static final HashMap<Integer, KnotxWiremockServer> portToServerMap = new HashMap<>();
-  private static final HashMap<String, KnotxWiremockServer> serviceNameToServerMap =
-      new HashMap<>();
-  private final HashMap<String, KnotxWiremockServer> localInstanceServers = new HashMap<>();
+  // futures complete when servers are started, so concurrent requests for one server share a start
+  private static final ConcurrentHashMap<Integer, CompletableFuture<KnotxWiremockServer>>
+      portToServerMap = new ConcurrentHashMap<>();
+  // indexed by test class, so per class queries do not scan servers of other classes
+  private static final KnotxServerRegistry<CompletableFuture<KnotxWiremockServer>>
+      serviceNameToServerMap = new KnotxServerRegistry<>();
+  private final KnotxServerRegistry<KnotxWiremockServer> localInstanceServers =
+      new KnotxServerRegistry<>();
+
+  // Jetty start and stop block, so servers are handled on dedicated threads, not the common pool
+  private static final ExecutorService serversExecutor =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "knotx-wiremock-servers");
+            thread.setDaemon(true);
+            return thread;
+          });
 
   /**
    * Retrieve Wiremock for given port and add given mappings
@@ -87,13 +110,20 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
     return stubForPort(server.port(), mappingBuilder);
   }
 
+  /**
+   * @return statistics of the response body caches of all servers in the JVM
+   */
+  public static CacheStats bodyCacheStats() {
+    return KnotxFileSource.bodyCacheStats();
+  }
+
   @Override
   public boolean supportsParameter(
       ParameterContext parameterContext, ExtensionContext extensionContext)
       throws ParameterResolutionException {
     Class<?> type = getType(parameterContext);
 
-    if (parameterContext.getParameter().isAnnotationPresent(ClasspathResourcesMockServer.class)) {
+    if (KnotxTestDescriptor.of(parameterContext).getWiremock().isPresent()) {
       if (type.equals(WireMockServer.class) || type.equals(Integer.class)) {
         return true;
       }
@@ -110,13 +140,15 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
       ParameterContext parameterContext, ExtensionContext extensionContext)
       throws ParameterResolutionException {
 
-    return parameterContext
-        .findAnnotation(ClasspathResourcesMockServer.class)
+    return KnotxTestDescriptor.of(parameterContext)
+        .getWiremock()
         .map(
             knotxWiremock -> {
-              String nameReference =
-                  getFullyQualifiedName(extensionContext, parameterContext, knotxWiremock);
-              WireMockServer server = setupWiremockServer(nameReference, knotxWiremock);
+              String owner = getClassName(extensionContext);
+              String name = getServerName(owner, parameterContext, knotxWiremock);
+              WireMockServer server =
+                  setupWiremockServer(
+                      owner, name, knotxWiremock, KnotxTimings.of(extensionContext));
               Class<?> type = getType(parameterContext);
 
               if (type.equals(WireMockServer.class)) {
@@ -133,47 +165,39 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
                     "Not supported parameter: " + parameterContext.getParameter().getName()));
   }
 
-  private String getFullyQualifiedName(
-      ExtensionContext extensionContext,
+  /** @return name of the server within the owner class, the field name when it is a field */
+  private String getServerName(
+      String owner,
       ParameterContext parameterContext,
       ClasspathResourcesMockServer classpathResourcesMockServer) {
-    String paramName = checkAndGetParameterName(parameterContext);
+    String paramName = KnotxTestDescriptor.of(parameterContext).getName();
     if (classpathResourcesMockServer.port() == Options.DYNAMIC_PORT) {
-      String fieldName = getClassFieldName(extensionContext, paramName);
-      if (localInstanceServers.containsKey(fieldName)) {
-        return fieldName;
+      if (localInstanceServers.get(owner, paramName) != null) {
+        return paramName;
       }
     }
-    return getClassMethodParameterName(extensionContext, parameterContext);
-  }
-
-  private String checkAndGetParameterName(ParameterContext parameterContext) {
-    String name = parameterContext.getParameter().getName();
-    if (name.startsWith("arg")) {
-      throw new IllegalStateException(
-          "Please configure 'options.compilerArgs << \"-parameters\"', please check the README file.");
-    }
-    return name;
+    return getMethodName(parameterContext) + getParameterName(parameterContext);
   }
 
   @Override
   public void afterAll(ExtensionContext context) {
-    globalMapsLock.lock();
-
-    // cleanup our local instances, operate only on port numbers as they're unique
-    localInstanceServers.forEach(
-        (service, server) -> {
-          if (server.isRunning()) {
-            server.shutdown();
-          }
-
-          // remove instances from global map
-          int port = server.getMockConfig().port;
-          portToServerMap.remove(port);
-          serviceNameToServerMap.values().removeIf(s -> s.getMockConfig().port == port);
-        });
+    KnotxWiremockPool.instance().register(context);
+
+    // cleanup servers of the finishing class only, classes sharing its static port servers keep
+    // no references to them, they are looked up by port
+    String owner = getClassName(context);
+    List<Runnable> releases = new ArrayList<>();
+    for (KnotxWiremockServer server : localInstanceServers.removeOwner(owner).values()) {
+      int port = server.getMockConfig().port;
+      portToServerMap.remove(port);
+
+      // reset and kept for later test classes, or shut down
+      releases.add(() -> KnotxWiremockPool.instance().release(server));
+    }
+    serviceNameToServerMap.removeOwner(owner);
+    runInParallel(releases);
 
-    globalMapsLock.unlock();
+    KnotxTimings.of(context).publish(context);
   }
 
   /** Sets up all annotated fields in test class */
@@ -184,17 +208,18 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
       return;
     }
 
-    forEachWiremockFields(
-        testClass.get(),
-        field -> {
-          String reference = getClassFieldName(context, field);
-          ClasspathResourcesMockServer wiremockAnnotation =
-              field.getAnnotation(ClasspathResourcesMockServer.class);
+    KnotxTimings timings = KnotxTimings.of(context);
+    String owner = getClassName(context);
 
-          WireMockServer server = setupWiremockServer(reference, wiremockAnnotation);
+    for (Field field : KnotxTestDescriptor.of(testClass.get()).getWiremockFields()) {
+      ClasspathResourcesMockServer wiremockAnnotation =
+          field.getAnnotation(ClasspathResourcesMockServer.class);
 
-          ReflectUtil.setField(testInstance, field, server);
-        });
+      WireMockServer server =
+          setupWiremockServer(owner, field.getName(), wiremockAnnotation, timings);
+
+      ReflectUtil.setField(testInstance, field, server);
+    }
   }
 
   public void addMissingInstanceServers(String forClass, ExtensionContext context) {
@@ -203,56 +228,78 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
     if (!instance.isPresent()) {
       return;
     }
-    if (anyKeyStartsWith(localInstanceServers, forClass)) {
+    if (localInstanceServers.hasEntries(forClass)) {
       return;
     }
-    if (anyKeyStartsWith(serviceNameToServerMap, forClass)) {
+    if (serviceNameToServerMap.hasEntries(forClass)) {
       return;
     }
 
     Class<?> testClass = context.getRequiredTestClass();
 
-    try {
-      globalMapsLock.lock();
-
-      forEachWiremockFields(
-          testClass,
-          field -> {
-            String name = getClassFieldName(context, field);
+    for (Field field : KnotxTestDescriptor.of(testClass).getWiremockFields()) {
+      String name = field.getName();
 
-            Object wiremockObject = ReflectUtil.fieldValue(instance.get(), field);
-            KnotxWiremockServer wiremockServer;
+      Object wiremockObject = ReflectUtil.fieldValue(instance.get(), field);
+      KnotxWiremockServer wiremockServer;
 
-            if (wiremockObject instanceof KnotxWiremockServer) {
-              wiremockServer = ((KnotxWiremockServer) wiremockObject);
+      if (wiremockObject instanceof KnotxWiremockServer) {
+        wiremockServer = ((KnotxWiremockServer) wiremockObject);
 
-              int port = wiremockServer.port();
+        int port = wiremockServer.port();
 
-              // DON'T YOU EVEN DARE TO PUT THIS WIREMOCK INSTANCE INTO LOCAL INSTANCES MAP
-              portToServerMap.put(port, wiremockServer);
-              serviceNameToServerMap.put(name, wiremockServer);
-            }
-          });
-
-    } finally {
-      globalMapsLock.unlock();
+        // DON'T YOU EVEN DARE TO PUT THIS WIREMOCK INSTANCE INTO LOCAL INSTANCES MAP
+        portToServerMap.put(port, CompletableFuture.completedFuture(wiremockServer));
+        serviceNameToServerMap.put(
+            forClass, name, CompletableFuture.completedFuture(wiremockServer));
+      }
     }
   }
 
   @Override
   public void addToOverrides(Config config, List<JsonObject> overrides, String forClass) {
+    addToOverrides(config, overrides, forClass, KnotxTimings.disabled());
+  }
+
+  /**
+   * Same as {@linkplain #addToOverrides(Config, List, String)}, records servers start durations.
+   *
+   * @param config Knot.x configuration
+   * @param overrides list the servers ports override is added to
+   * @param forClass test class name
+   * @param timings timings to record to
+   */
+  public void addToOverrides(
+      Config config, List<JsonObject> overrides, String forClass, KnotxTimings timings) {
     if (!config.hasPath(WIREMOCK_NAMESPACE)) {
       return;
     }
     List<String> serverNames = getServerNames(config);
 
     // build KnotxMockConfig objects from config
+    Map<String, KnotxMockConfig> mockConfigs = new LinkedHashMap<>();
     for (String serverName : serverNames) {
       String base = KnotxWiremockExtension.WIREMOCK_NAMESPACE + "." + serverName;
       String reference = forClass + serverName;
+      mockConfigs.put(serverName, KnotxMockConfig.createMockConfig(config, reference, base));
+    }
 
-      KnotxMockConfig mockConfig = KnotxMockConfig.createMockConfig(config, reference, base);
-      KnotxWiremockServer server = setupWiremockServer(mockConfig);
+    // start all servers at once, ports are known when all of them are up
+    List<KnotxWiremockServer> servers =
+        inParallel(
+            serverNames.stream()
+                .map(
+                    serverName ->
+                        (Supplier<KnotxWiremockServer>)
+                            () ->
+                                setupWiremockServer(
+                                    forClass, serverName, mockConfigs.get(serverName), timings))
+                .collect(Collectors.toList()));
+
+    for (int i = 0; i < serverNames.size(); i++) {
+      String base = KnotxWiremockExtension.WIREMOCK_NAMESPACE + "." + serverNames.get(i);
+      KnotxMockConfig mockConfig = mockConfigs.get(serverNames.get(i));
+      KnotxWiremockServer server = servers.get(i);
 
       if (StringUtils.isEmpty(mockConfig.callToConfigure)) {
         String[] httpMethods =
@@ -283,24 +330,22 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
 
     Map<String, Object> serversConfig = new HashMap<>();
 
-    try {
-      globalMapsLock.lock();
-
-      Stream<KnotxWiremockServer> stream =
-          StreamUtil.concatValues(serviceNameToServerMap, localInstanceServers);
-
-      // get entries for given class, trim class name for results
-      stream
-          .map(KnotxWiremockServer::getMockConfig)
-          .filter(mockConfig -> mockConfig.reference.startsWith(forClass))
-          .forEach(
-              mockConfig -> {
-                String trimmed = mockConfig.reference.substring(forClass.length());
-                serversConfig.put(trimmed, ImmutableMap.of("port", mockConfig.port));
-              });
-    } finally {
-      globalMapsLock.unlock();
-    }
+    Stream<KnotxWiremockServer> stream =
+        Stream.concat(
+            serviceNameToServerMap.entriesOf(forClass).values().stream()
+                .map(KnotxWiremockExtension::startedServer)
+                .filter(Objects::nonNull),
+            localInstanceServers.entriesOf(forClass).values().stream());
+
+    // trim class name for results
+    stream
+        .map(KnotxWiremockServer::getMockConfig)
+        .filter(mockConfig -> mockConfig.reference.startsWith(forClass))
+        .forEach(
+            mockConfig -> {
+              String trimmed = mockConfig.reference.substring(forClass.length());
+              serversConfig.put(trimmed, ImmutableMap.of("port", mockConfig.port));
+            });
 
     if (serversConfig.isEmpty()) {
       return;
@@ -315,70 +360,158 @@ public class KnotxWiremockExtension extends KnotxBaseExtension
     return config.getConfig(WIREMOCK_NAMESPACE).entrySet().stream()
         .map(Entry::getKey)
         .map(key -> key.contains(".") ? key.substring(0, key.indexOf(".")) : key)
+        .distinct()
         .collect(Collectors.toList());
   }
 
+  /** Run the task on the servers executor without waiting for it */
+  static CompletableFuture<Void> runAsync(Runnable task) {
+    return CompletableFuture.runAsync(task, serversExecutor);
+  }
+
+  /** Run tasks on the servers executor and wait for all of them */
+  static void runInParallel(List<Runnable> tasks) {
+    inParallel(
+        tasks.stream()
+            .map(
+                task ->
+                    (Supplier<Void>)
+                        () -> {
+                          task.run();
+                          return null;
+                        })
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * Run tasks on the servers executor and wait for all of them, the first failure is rethrown
+   * when all tasks are finished.
+   */
+  private static <T> List<T> inParallel(List<Supplier<T>> tasks) {
+    if (tasks.size() == 1) {
+      return Collections.singletonList(tasks.get(0).get());
+    }
+
+    List<CompletableFuture<T>> futures =
+        tasks.stream()
+            .map(task -> CompletableFuture.supplyAsync(task, serversExecutor))
+            .collect(Collectors.toList());
+
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .exceptionally(e -> null)
+        .join();
+    return futures.stream().map(KnotxWiremockExtension::join).collect(Collectors.toList());
+  }
+
   private static WireMock getOrCreateWiremock(int port) {
-    try {
-      globalMapsLock.lock();
+    CompletableFuture<KnotxWiremockServer> server = portToServerMap.get(port);
+    if (server != null) {
+      // waits only when the server is still starting
+      return join(server).getWireMock();
+    }
 
-      if (portToServerMap.containsKey(port)) {
-        return portToServerMap.get(port).getWireMock();
-      }
+    return new WireMock("localhost", port);
+  }
 
-      return new WireMock("localhost", port);
-    } finally {
-      globalMapsLock.unlock();
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
     }
   }
 
+  /** @return the server when started successfully, null otherwise */
+  private static KnotxWiremockServer startedServer(CompletableFuture<KnotxWiremockServer> server) {
+    return server.isDone() && !server.isCompletedExceptionally() ? server.join() : null;
+  }
+
   private KnotxWiremockServer setupWiremockServer(
-      String reference, ClasspathResourcesMockServer classpathResourcesMockServer) {
-    KnotxMockConfig config = new KnotxMockConfig(reference, classpathResourcesMockServer.port());
-    return setupWiremockServer(config);
+      String owner,
+      String name,
+      ClasspathResourcesMockServer classpathResourcesMockServer,
+      KnotxTimings timings) {
+    KnotxMockConfig config =
+        new KnotxMockConfig(owner + name, classpathResourcesMockServer.port());
+    return setupWiremockServer(owner, name, config, timings);
   }
 
-  private KnotxWiremockServer setupWiremockServer(KnotxMockConfig config) {
+  /**
+   * @param owner test class name
+   * @param name server name within the class
+   * @param config server configuration, its reference is the owner and name concatenated
+   * @param timings timings to record the server start to
+   * @return started server, shared when already registered for the name or static port
+   */
+  private KnotxWiremockServer setupWiremockServer(
+      String owner, String name, KnotxMockConfig config, KnotxTimings timings) {
     int port = config.port;
-    String reference = config.reference;
 
-    try {
-      globalMapsLock.lock();
+    KnotxWiremockServer local = localInstanceServers.get(owner, name);
+    if (local != null) {
+      return local;
+    }
 
-      if (localInstanceServers.containsKey(reference)) {
-        return localInstanceServers.get(reference);
-      }
-      if (serviceNameToServerMap.containsKey(reference)) {
-        return portToServerMap.get(serviceNameToServerMap.get(reference).port());
-      }
-      if (portToServerMap.containsKey(port)) {
-        return portToServerMap.get(port);
+    CompletableFuture<KnotxWiremockServer> starting = new CompletableFuture<>();
+    CompletableFuture<KnotxWiremockServer> registered =
+        serviceNameToServerMap.putIfAbsent(owner, name, starting);
+    if (registered != null) {
+      return join(registered);
+    }
+    if (port != KnotxMockConfig.RANDOM_PORT) {
+      // another reference already serves this static port
+      CompletableFuture<KnotxWiremockServer> samePort = portToServerMap.putIfAbsent(port, starting);
+      if (samePort != null) {
+        serviceNameToServerMap.remove(owner, name, starting);
+        KnotxWiremockServer server = join(samePort);
+        starting.complete(server);
+        return server;
       }
+    }
 
-      WireMockConfiguration wireMockConfiguration = new WireMockConfiguration();
-      wireMockConfiguration.extensions(new KnotxFileSource(config));
-
-      if (port == KnotxMockConfig.RANDOM_PORT) {
-        wireMockConfiguration.dynamicPort();
-      } else {
-        wireMockConfiguration.port(port);
-      }
+    try {
+      KnotxWiremockServer server = leaseOrStartServer(config, timings);
+      portToServerMap.put(server.port(), starting);
+      localInstanceServers.put(owner, name, server);
+      starting.complete(server);
+      return server;
+    } catch (RuntimeException e) {
+      serviceNameToServerMap.remove(owner, name, starting);
+      portToServerMap.remove(port, starting);
+      starting.completeExceptionally(e);
+      throw e;
+    }
+  }
 
-      KnotxWiremockServer server = new KnotxWiremockServer(wireMockConfiguration);
-      server.start();
+  private KnotxWiremockServer leaseOrStartServer(KnotxMockConfig config, KnotxTimings timings) {
+    KnotxWiremockPool pool = KnotxWiremockPool.instance();
 
-      port = server.port();
-      config = new KnotxMockConfig(config, port);
-      server.setMockConfig(config);
-      server.setWireMock(getOrCreateWiremock(port));
+    KnotxWiremockServer server = pool.lease(config);
+    if (server != null) {
+      server.setMockConfig(new KnotxMockConfig(config, server.port()));
+      return server;
+    }
+    return startServer(config, timings);
+  }
 
-      portToServerMap.put(port, server);
-      serviceNameToServerMap.put(reference, server);
-      localInstanceServers.put(reference, server);
+  private KnotxWiremockServer startServer(KnotxMockConfig config, KnotxTimings timings) {
+    WireMockConfiguration wireMockConfiguration = new WireMockConfiguration();
+    wireMockConfiguration.extensions(new KnotxFileSource(config));
 
-      return server;
-    } finally {
-      globalMapsLock.unlock();
+    if (config.port == KnotxMockConfig.RANDOM_PORT) {
+      wireMockConfiguration.dynamicPort();
+    } else {
+      wireMockConfiguration.port(config.port);
     }
+
+    KnotxWiremockServer server = new KnotxWiremockServer(wireMockConfiguration);
+    timings.time(Phase.WIREMOCK_START, server::start);
+
+    int port = server.port();
+    server.setMockConfig(new KnotxMockConfig(config, port));
+    server.setWireMock(new WireMock("localhost", port));
+    server.setPoolKey(config.getPoolKey());
+    return server;
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.wiremock;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+/**
+ * Idle WireMock servers returned by finished test classes, leased by later classes declaring
+ * servers with the same configuration. Disabled unless its maximum size is set. Servers are reset
+ * when returned, and shut down when the pool is full, when idle for too long, and when the test
+ * suite finishes. Servers bound to static ports are never pooled, as the port would stay taken.
+ */
+final class KnotxWiremockPool {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxWiremockPool.class);
+
+  static final String MAX_SIZE_PARAMETER = "knotx.junit5.wiremock.pool.maxSize";
+  static final String IDLE_TIMEOUT_PARAMETER = "knotx.junit5.wiremock.pool.idleTimeoutSeconds";
+  private static final int DEFAULT_MAX_SIZE = 0;
+  private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+
+  private static final KnotxWiremockPool INSTANCE = new KnotxWiremockPool();
+
+  private final Map<String, Deque<IdleServer>> idle = new HashMap<>();
+  // stops of idle servers evicted while leasing
+  private final List<CompletableFuture<Void>> stopping = new ArrayList<>();
+  private int size;
+  private int maxSize;
+  private long idleTimeoutNanos;
+  private boolean registered;
+  private int leases;
+  private int starts;
+
+  KnotxWiremockPool() {}
+
+  /** @return pool shared by all extension instances */
+  static KnotxWiremockPool instance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Read pool settings and make sure idle servers are shut down when the test suite finishes.
+   *
+   * @param context any extension context of the suite
+   */
+  synchronized void register(ExtensionContext context) {
+    if (registered) {
+      return;
+    }
+    maxSize =
+        context
+            .getConfigurationParameter(MAX_SIZE_PARAMETER)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_MAX_SIZE);
+    idleTimeoutNanos =
+        TimeUnit.SECONDS.toNanos(
+            context
+                .getConfigurationParameter(IDLE_TIMEOUT_PARAMETER)
+                .map(Long::parseLong)
+                .orElse(DEFAULT_IDLE_TIMEOUT_SECONDS));
+    context
+        .getRoot()
+        .getStore(Namespace.create(KnotxWiremockPool.class))
+        .put(KnotxWiremockPool.class, (CloseableResource) this::shutdownAll);
+    registered = true;
+  }
+
+  /**
+   * @param config configuration of the server to set up
+   * @return idle server with the same configuration, null when there is none
+   */
+  synchronized KnotxWiremockServer lease(KnotxMockConfig config) {
+    // servers of the class are set up in parallel, so none of them waits for evicted ones to stop
+    List<IdleServer> evicted = new ArrayList<>();
+    evictIdle(evicted);
+    shutdownAsync(evicted);
+
+    String key = config.getPoolKey();
+    Deque<IdleServer> servers = key == null ? null : idle.get(key);
+    if (servers == null || servers.isEmpty()) {
+      starts++;
+      return null;
+    }
+    size--;
+    leases++;
+    return servers.pollLast().server;
+  }
+
+  /**
+   * Reset the server and keep it for later classes, shut it down when pooling is disabled, when
+   * it is bound to a static port, or when the pool is full.
+   *
+   * @param server server of a finished test class
+   */
+  void release(KnotxWiremockServer server) {
+    if (!server.isRunning()) {
+      return;
+    }
+    server.resetAll();
+
+    List<IdleServer> evicted = new ArrayList<>();
+    synchronized (this) {
+      if (!registered || maxSize <= 0 || server.getPoolKey() == null) {
+        evicted.add(new IdleServer(server));
+      } else {
+        evictIdle(evicted);
+        if (size >= maxSize) {
+          evicted.add(pollOldest());
+        }
+        idle.computeIfAbsent(server.getPoolKey(), key -> new ArrayDeque<>())
+            .addLast(new IdleServer(server));
+        size++;
+      }
+    }
+    shutdown(evicted);
+  }
+
+  /** Remove servers idle for too long, to be shut down once the pool lock is released */
+  private void evictIdle(List<IdleServer> evicted) {
+    long now = System.nanoTime();
+    for (Deque<IdleServer> servers : idle.values()) {
+      // servers are added in release order, the oldest first
+      while (!servers.isEmpty() && now - servers.peekFirst().since > idleTimeoutNanos) {
+        size--;
+        evicted.add(servers.pollFirst());
+      }
+    }
+  }
+
+  /** Stop servers on the servers executor, must be called holding the pool lock */
+  private void shutdownAsync(List<IdleServer> servers) {
+    if (servers.isEmpty()) {
+      return;
+    }
+    stopping.removeIf(CompletableFuture::isDone);
+    for (IdleServer idleServer : servers) {
+      stopping.add(KnotxWiremockExtension.runAsync(() -> shutdown(idleServer.server)));
+    }
+  }
+
+  private IdleServer pollOldest() {
+    Deque<IdleServer> oldest = null;
+    for (Deque<IdleServer> servers : idle.values()) {
+      if (!servers.isEmpty()
+          && (oldest == null || servers.peekFirst().since < oldest.peekFirst().since)) {
+        oldest = servers;
+      }
+    }
+    if (oldest == null) {
+      return null;
+    }
+    size--;
+    return oldest.pollFirst();
+  }
+
+  /** Shut down all idle servers and wait for servers stopped in the background */
+  void shutdownAll() {
+    List<IdleServer> servers = new ArrayList<>();
+    List<CompletableFuture<Void>> stops;
+    synchronized (this) {
+      idle.values().forEach(servers::addAll);
+      idle.clear();
+      stops = new ArrayList<>(stopping);
+      stopping.clear();
+      size = 0;
+      registered = false;
+      LOGGER.info(
+          String.format("WireMock servers pool: %d leases, %d servers started", leases, starts));
+    }
+    KnotxWiremockExtension.runInParallel(
+        servers.stream()
+            .map(idleServer -> (Runnable) () -> shutdown(idleServer.server))
+            .collect(Collectors.toList()));
+    stops.forEach(KnotxWiremockPool::awaitQuietly);
+  }
+
+  /** Wait for the stop, a failure is only logged as the server is not used anymore */
+  private static void awaitQuietly(CompletableFuture<Void> stopped) {
+    try {
+      stopped.join();
+    } catch (CompletionException e) {
+      LOGGER.warn("Could not stop idle WireMock server", e.getCause());
+    }
+  }
+
+  private static void shutdown(List<IdleServer> servers) {
+    servers.stream().filter(Objects::nonNull).forEach(idleServer -> shutdown(idleServer.server));
+  }
+
+  private static void shutdown(KnotxWiremockServer server) {
+    if (server.isRunning()) {
+      // unlike shutdown(), releases the port before returning
+      server.stop();
+    }
+  }
+
+  private static final class IdleServer {
+
+    private final KnotxWiremockServer server;
+    private final long since = System.nanoTime();
+
+    private IdleServer(KnotxWiremockServer server) {
+      this.server = server;
+    }
+  }
+}
@@ -27,6 +27,7 @@ public class KnotxWiremockServer extends WireMockServer {
 
   private KnotxMockConfig mockConfig;
   private WireMock wireMock;
+  private String poolKey;
 
   KnotxWiremockServer(Options options) {
     super(options);
@@ -48,4 +49,13 @@ public class KnotxWiremockServer extends WireMockServer {
   void setWireMock(WireMock wireMock) {
     this.wireMock = wireMock;
   }
+
+  /** @return key of the configuration the server was started with */
+  String getPoolKey() {
+    return poolKey;
+  }
+
+  void setPoolKey(String poolKey) {
+    this.poolKey = poolKey;
+  }
 }
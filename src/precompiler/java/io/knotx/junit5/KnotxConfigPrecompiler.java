@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import com.typesafe.config.ConfigException;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.FileSystemException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build time precompilation of {@linkplain KnotxApplyConfiguration} chains. Scans compiled test
+ * classes, resolves every distinct configuration chain and writes it to <code>
+ * knotx-precompiled/&lt;hash&gt;.json</code> in the output directory, which has to be on the test
+ * runtime classpath. {@linkplain KnotxConcatConfigProcessor} uses an artifact instead of parsing
+ * the files when hashes of the files it was created from match. More details in README.md.<br>
+ * <br>
+ * Usage: <code>KnotxConfigPrecompiler &lt;test classes dirs&gt; &lt;output dir&gt;</code>, where
+ * test classes directories are separated with the platform path separator. Test classes and
+ * configuration files must be on the classpath. Chains which can't be resolved without test
+ * overrides, or with missing files, are skipped, other configuration errors fail the build.
+ */
+public final class KnotxConfigPrecompiler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(KnotxConfigPrecompiler.class);
+
+  private static final String CLASS_EXTENSION = ".class";
+
+  /** Main class */
+  private KnotxConfigPrecompiler() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException(
+          "Usage: KnotxConfigPrecompiler <test classes dirs> <output dir>");
+    }
+
+    Set<List<String>> chains = new LinkedHashSet<>();
+    for (String classesDir : args[0].split(File.pathSeparator)) {
+      chains.addAll(findChains(Paths.get(classesDir)));
+    }
+
+    Path output = Paths.get(args[1]);
+    KnotxConcatConfigProcessor processor = new KnotxConcatConfigProcessor();
+    Vertx vertx = Vertx.vertx();
+
+    try {
+      for (List<String> chain : chains) {
+        precompile(processor, vertx, chain, output);
+      }
+    } finally {
+      vertx.close();
+    }
+  }
+
+  private static void precompile(
+      KnotxConcatConfigProcessor processor, Vertx vertx, List<String> chain, Path output) {
+    try {
+      JsonObject artifact = processor.precompile(vertx.fileSystem(), chain);
+      Path file = output.resolve(KnotxPrecompiledConfig.artifactName(chain));
+
+      Files.createDirectories(file.getParent());
+      Files.write(file, artifact.encode().getBytes(StandardCharsets.UTF_8));
+      LOGGER.info(String.format("Precompiled %s to %s", chain, file));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ConfigException.UnresolvedSubstitution e) {
+      // the chain is parsed at runtime, e.g. when it can be resolved only with test overrides
+      LOGGER.info(String.format("Skipped %s: %s", chain, e.getMessage()));
+    } catch (FileSystemException e) {
+      // a test using the chain fails when it is run
+      LOGGER.warn(String.format("Skipped %s, configuration file not found", chain), e);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Could not precompile configuration " + chain, e);
+    }
+  }
+
+  private static Set<List<String>> findChains(Path classesDir) throws IOException {
+    if (!Files.isDirectory(classesDir)) {
+      return new LinkedHashSet<>();
+    }
+
+    try (Stream<Path> files = Files.walk(classesDir)) {
+      return files
+          .filter(file -> file.toString().endsWith(CLASS_EXTENSION))
+          .map(file -> toClassName(classesDir, file))
+          .flatMap(KnotxConfigPrecompiler::findChains)
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+  }
+
+  private static Stream<List<String>> findChains(String className) {
+    try {
+      Class<?> testClass =
+          Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+
+      return KnotxTestDescriptor.of(testClass).getConfigChains().stream();
+    } catch (ClassNotFoundException | LinkageError e) {
+      // not loadable without its optional dependencies, can not be a test class in this run
+      return Stream.empty();
+    }
+  }
+
+  private static String toClassName(Path classesDir, Path file) {
+    String relative = classesDir.relativize(file).toString();
+    return relative
+        .substring(0, relative.length() - CLASS_EXTENSION.length())
+        .replace(File.separatorChar, '.');
+  }
+}
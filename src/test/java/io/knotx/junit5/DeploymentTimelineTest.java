@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.junit5.DeploymentTimeline.Entry;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration({"config/example_random_config.conf", "config/modules_config.conf"})
+class DeploymentTimelineTest {
+
+  @Test
+  @DisplayName("Expect deployment of every module recorded under its module name.")
+  void recordModuleDeployments(Vertx vertx, DeploymentTimeline timeline) {
+    List<Entry> modules =
+        timeline.getEntries().stream()
+            .filter(entry -> entry.getModule().equals("server"))
+            .collect(Collectors.toList());
+
+    assertEquals(1, modules.size());
+    assertTrue(modules.get(0).isFinished());
+    assertTrue(modules.get(0).isSucceeded());
+    assertTrue(modules.get(0).getEndNanos() >= modules.get(0).getStartNanos());
+  }
+
+  @Test
+  @DisplayName("Expect no deployments recorded when the timeline is not injected.")
+  void skipRecordingWhenNotRequested(Vertx vertx) {
+    // lifecycle timings are not enabled in this project
+    assertTrue(DeploymentTimeline.of(vertx).getEntries().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Expect finished deployments exported as Chrome trace complete events.")
+  void exportTraceEvents(Vertx vertx, DeploymentTimeline timeline) {
+    JsonArray events = timeline.toTraceEvents(1);
+
+    assertEquals(timeline.getEntries().size(), events.size());
+    JsonObject event = events.getJsonObject(0);
+    assertEquals("X", event.getString("ph"));
+    assertEquals(1, event.getInteger("pid").intValue());
+  }
+
+  @Test
+  @DisplayName("Expect unfinished deployments left out of trace events, keeping thread IDs.")
+  void skipUnfinishedTraceEvents() {
+    DeploymentTimeline timeline = new DeploymentTimeline();
+    timeline.started("unfinished", "UnfinishedVerticle");
+    timeline.started("finished", "FinishedVerticle").finish(true);
+
+    JsonArray events = timeline.toTraceEvents(1);
+
+    assertEquals(1, events.size());
+    assertEquals("finished", events.getJsonObject(0).getString("name"));
+    assertEquals(2, events.getJsonObject(0).getInteger("tid").intValue());
+  }
+
+  @Test
+  @DisplayName("Expect deployments made without a completion handler finished.")
+  void finishDeploymentsWithoutCompletionHandler(Vertx vertx) throws Exception {
+    DeploymentTimeline timeline = new DeploymentTimeline();
+    Verticle starter =
+        new AbstractVerticle() {
+          @Override
+          public void start() {
+            getVertx().deployVerticle(new AbstractVerticle() {});
+          }
+        };
+
+    vertx.deployVerticle(new KnotxTimelineVerticle(starter, timeline, Collections.emptyMap()));
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (!allFinished(timeline) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, timeline.getEntries().size());
+    assertTrue(allFinished(timeline));
+    assertTrue(timeline.getEntries().get(0).isSucceeded());
+  }
+
+  private static boolean allFinished(DeploymentTimeline timeline) {
+    return !timeline.isEmpty() && timeline.getEntries().stream().allMatch(Entry::isFinished);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.common.cache.CacheStats;
+import com.typesafe.config.Config;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KnotxConcatConfigProcessorTest {
+
+  private static final String PATH = "config/modules_config.conf";
+
+  private final KnotxConcatConfigProcessor processor = new KnotxConcatConfigProcessor();
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  void sameFile_mustBeParsedOnce() {
+    JsonObject configuration = new JsonObject().put("paths", new JsonArray().add(PATH));
+
+    Config first = processor.createHoconConfig(vertx.fileSystem(), configuration);
+    CacheStats parsedBefore = KnotxConcatConfigProcessor.parsedConfigStats();
+    CacheStats mergedBefore = KnotxConcatConfigProcessor.mergedConfigStats();
+    Config second = processor.createHoconConfig(vertx.fileSystem(), configuration);
+    CacheStats parsed = KnotxConcatConfigProcessor.parsedConfigStats().minus(parsedBefore);
+    CacheStats merged = KnotxConcatConfigProcessor.mergedConfigStats().minus(mergedBefore);
+
+    assertEquals(0, parsed.missCount());
+    assertEquals(1, merged.hitCount());
+    assertSame(first, second);
+  }
+
+  @Test
+  void parallelLoading_mustKeepOverridingOrder(@TempDir Path dir) throws IOException {
+    // fresh contents, so the chain is not served from the caches filled by other tests
+    String nonce = UUID.randomUUID().toString();
+    JsonArray paths = new JsonArray();
+    for (int i = 0; i < 4; i++) {
+      Path file = dir.resolve("config" + i + ".conf");
+      Files.write(
+          file,
+          Arrays.asList(
+              "# " + nonce,
+              "value = " + i,
+              "list = [" + i + "]",
+              "nested { shared = " + i + ", key" + i + " = " + i + " }"));
+      paths.add(file.toString());
+    }
+    CacheStats mergedBefore = KnotxConcatConfigProcessor.mergedConfigStats();
+
+    Config parallel =
+        processor.createHoconConfig(
+            vertx.fileSystem(), new JsonObject().put("paths", paths).put("parallel", true));
+    JsonObject resolved = processor.resolveConfig(parallel, Collections.emptyList());
+
+    CacheStats merged = KnotxConcatConfigProcessor.mergedConfigStats().minus(mergedBefore);
+    assertEquals(1, merged.missCount());
+    assertEquals(3, resolved.getInteger("value").intValue());
+    assertEquals(new JsonArray().add(3), resolved.getJsonArray("list"));
+    assertEquals(
+        new JsonObject()
+            .put("key0", 0)
+            .put("key1", 1)
+            .put("key2", 2)
+            .put("key3", 3)
+            .put("shared", 3),
+        resolved.getJsonObject("nested"));
+  }
+
+  @Test
+  void overrides_mustBeAppliedInOrder() {
+    Config config =
+        processor.createHoconConfig(
+            vertx.fileSystem(),
+            new JsonObject()
+                .put("paths", new JsonArray().add("config/example_random_config.conf").add(PATH)));
+
+    JsonObject resolved =
+        processor.resolveConfig(
+            config,
+            Arrays.asList(
+                new JsonObject().put("test", new JsonObject().put("value", 1)),
+                new JsonObject().put("test", new JsonObject().put("value", 2))));
+
+    assertEquals(
+        2,
+        resolved
+            .getJsonObject("config")
+            .getJsonObject("server")
+            .getJsonObject("options")
+            .getJsonObject("config")
+            .getJsonObject("extensionConfig")
+            .getInteger("value"));
+  }
+}
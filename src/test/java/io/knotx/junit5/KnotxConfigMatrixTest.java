@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.Vertx;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration({"config/example_random_config.conf", "config/modules_config.conf"})
+class KnotxConfigMatrixTest {
+
+  private static final String ANY_ENDPOINT = "/any";
+
+  private static final Set<String> variants = ConcurrentHashMap.newKeySet();
+
+  @AfterAll
+  static void expectAllVariants() {
+    assertEquals(new HashSet<>(Arrays.asList("cache-on", "cache-off")), variants);
+  }
+
+  @KnotxConfigMatrix({"config/variant_cache_on.conf", "config/variant_cache_off.conf"})
+  @DisplayName("Expect Knot.x deployed with every configuration variant.")
+  void deployVariant(Vertx vertx, @RandomPort Integer globalServerPort) {
+    // @formatter:off
+    String variant =
+        given().
+            port(globalServerPort).
+        when().
+            get(ANY_ENDPOINT).
+        then().assertThat().
+            statusCode(200).
+        extract().
+            path("variant");
+    // @formatter:on
+    variants.add(variant);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import io.vertx.core.Vertx;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@TestMethodOrder(KnotxConfigMethodOrderer.class)
+@KnotxApplyConfiguration("config/example_random_config.conf")
+class KnotxConfigMethodOrdererTest {
+
+  private static final List<String> executed = new ArrayList<>();
+
+  @AfterAll
+  @DisplayName("Expect methods with the same configuration chain to run one after another.")
+  static void expectGroupedMethods() {
+    List<String> groups = new ArrayList<>();
+    for (String chain : executed) {
+      if (groups.isEmpty() || !groups.get(groups.size() - 1).equals(chain)) {
+        groups.add(chain);
+      }
+    }
+    assertEquals(new ArrayList<>(new LinkedHashSet<>(executed)), groups);
+    assertEquals(6, executed.size());
+  }
+
+  // instances are never deployed, only the order is verified
+
+  @Test
+  void classLevelA(KnotxInstance knotx) {
+    executed.add("class");
+  }
+
+  @Test
+  @KnotxApplyConfiguration("config/method_level_config.conf")
+  void methodLevelA(KnotxInstance knotx) {
+    executed.add("method");
+  }
+
+  @Test
+  void classLevelB(KnotxInstance knotx) {
+    executed.add("class");
+  }
+
+  @Test
+  @KnotxApplyConfiguration("config/method_level_config.conf")
+  void methodLevelB(KnotxInstance knotx) {
+    executed.add("method");
+  }
+
+  @Test
+  void classLevelC(KnotxInstance knotx) {
+    executed.add("class");
+  }
+
+  @Test
+  void noKnotx() {
+    executed.add("none");
+  }
+
+  @Test
+  @DisplayName("Expect only Supplier<Vertx> parameters to be grouped as Knot.x instances.")
+  void supplierParameters() throws NoSuchMethodException {
+    assertEquals(
+        1,
+        KnotxConfigMethodOrderer.configChains(
+                Fixture.class.getDeclaredMethod("vertxSupplier", Supplier.class))
+            .size());
+    assertEquals(
+        0,
+        KnotxConfigMethodOrderer.configChains(
+                Fixture.class.getDeclaredMethod("otherSupplier", Supplier.class))
+            .size());
+  }
+
+  static class Fixture {
+
+    void vertxSupplier(Supplier<Vertx> vertx) {}
+
+    void otherSupplier(Supplier<String> value) {}
+  }
+}
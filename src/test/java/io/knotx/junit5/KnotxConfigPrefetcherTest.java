@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.common.cache.CacheStats;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KnotxConfigPrefetcherTest {
+
+  private final KnotxConcatConfigProcessor processor = new KnotxConcatConfigProcessor();
+  private final KnotxConfigPrefetcher prefetcher = new KnotxConfigPrefetcher(processor);
+
+  @AfterEach
+  void tearDown() {
+    prefetcher.close();
+  }
+
+  @Test
+  @DisplayName("Expect prefetched chains served from the cache when Knot.x is deployed.")
+  void prefetchedChainFromCache(@TempDir Path dir) throws Exception {
+    // fresh contents, so the chain is not cached by other tests
+    List<String> chain = Arrays.asList(write(dir, "base.conf"), write(dir, "test.conf"));
+    JsonObject configuration = new JsonObject().put("paths", new JsonArray(chain));
+
+    CacheStats parsedBefore = KnotxConcatConfigProcessor.parsedConfigStats();
+    CacheStats mergedBefore = KnotxConcatConfigProcessor.mergedConfigStats();
+    prefetcher.prefetch(Collections.singleton(chain)).get(10, TimeUnit.SECONDS);
+    CacheStats parsedPrefetched = KnotxConcatConfigProcessor.parsedConfigStats();
+    CacheStats mergedPrefetched = KnotxConcatConfigProcessor.mergedConfigStats();
+
+    processor.createKnotxConfig(prefetcher.fileSystem(), configuration, KnotxTimings.disabled());
+    CacheStats parsed = KnotxConcatConfigProcessor.parsedConfigStats().minus(parsedPrefetched);
+    CacheStats merged = KnotxConcatConfigProcessor.mergedConfigStats().minus(mergedPrefetched);
+
+    assertEquals(2, parsedPrefetched.minus(parsedBefore).missCount());
+    assertEquals(1, mergedPrefetched.minus(mergedBefore).missCount());
+    assertEquals(0, parsed.missCount());
+    assertEquals(0, merged.missCount());
+    assertEquals(1, merged.hitCount());
+  }
+
+  @Test
+  @DisplayName("Expect every chain prefetched once.")
+  void chainPrefetchedOnce(@TempDir Path dir) throws Exception {
+    List<String> chain = Collections.singletonList(write(dir, "base.conf"));
+
+    prefetcher.prefetch(Collections.singleton(chain)).get(10, TimeUnit.SECONDS);
+    CacheStats mergedBefore = KnotxConcatConfigProcessor.mergedConfigStats();
+    prefetcher.prefetch(Collections.singleton(chain)).get(10, TimeUnit.SECONDS);
+
+    assertEquals(
+        0, KnotxConcatConfigProcessor.mergedConfigStats().minus(mergedBefore).requestCount());
+  }
+
+  private static String write(Path dir, String name) throws Exception {
+    Path file = dir.resolve(name);
+    Files.write(
+        file, Arrays.asList("# " + UUID.randomUUID(), name.replace(".conf", "") + ".value = 1"));
+    return file.toString();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Vertx;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration({"config/example_random_config.conf", "config/modules_config.conf"})
+class KnotxExtensionLazyTest {
+
+  @Test
+  @DisplayName("Expect Knot.x deployed on the first get and cached afterwards.")
+  void deployOnFirstGet(KnotxInstance knotx) {
+    assertFalse(knotx.isDeployed());
+
+    Vertx vertx = knotx.get();
+
+    assertTrue(knotx.isDeployed());
+    assertSame(vertx, knotx.get());
+    assertNotNull(knotx.getRandomPort("globalServer"));
+  }
+
+  @Test
+  @DisplayName("Expect Supplier of Vertx injected.")
+  void injectSupplier(Supplier<Vertx> vertx) {
+    assertNotNull(vertx.get());
+  }
+}
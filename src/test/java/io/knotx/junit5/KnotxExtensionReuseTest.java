@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.vertx.core.Vertx;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration(
+    value = {"config/example_random_config.conf", "config/modules_config.conf"},
+    reuse = KnotxReuse.CLASS)
+class KnotxExtensionReuseTest {
+
+  private static final Set<Vertx> instances = new HashSet<>();
+  private static final Set<Integer> ports = new HashSet<>();
+
+  @AfterAll
+  static void expectOneInstancePerConfiguration() {
+    assertEquals(2, instances.size());
+    assertEquals(1, ports.size());
+  }
+
+  @RepeatedTest(3)
+  @DisplayName("Expect the same Knot.x instance and random ports for the same configuration.")
+  void sameConfiguration(Vertx vertx, @RandomPort Integer globalServerPort) {
+    assertNotNull(globalServerPort);
+    instances.add(vertx);
+    ports.add(globalServerPort);
+  }
+
+  @Test
+  @DisplayName("Expect a new Knot.x instance when configuration differs.")
+  @KnotxApplyConfiguration("config/method_level_config.conf")
+  void differentConfiguration(Vertx vertx) {
+    instances.add(vertx);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.Vertx;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+class KnotxExtensionSuiteReuseTest {
+
+  private static final Set<Vertx> instances = new HashSet<>();
+
+  @AfterAll
+  static void expectOneInstanceForAllClasses() {
+    assertEquals(1, instances.size());
+  }
+
+  @Nested
+  @KnotxApplyConfiguration(
+      value = {"config/example_random_config.conf", "config/modules_config.conf"},
+      reuse = KnotxReuse.SUITE)
+  class FirstClass {
+
+    @Test
+    @DisplayName("Expect Knot.x instance from the suite pool.")
+    void pooledInstance(Vertx vertx) {
+      instances.add(vertx);
+    }
+  }
+
+  @Nested
+  @KnotxApplyConfiguration(
+      value = {"config/example_random_config.conf", "config/modules_config.conf"},
+      reuse = KnotxReuse.SUITE)
+  class SecondClass {
+
+    @Test
+    @DisplayName("Expect the same Knot.x instance from the suite pool in another class.")
+    void pooledInstance(Vertx vertx) {
+      instances.add(vertx);
+    }
+  }
+}
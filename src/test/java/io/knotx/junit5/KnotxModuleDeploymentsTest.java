@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KnotxModuleDeploymentsTest {
+
+  private KnotxVertxCloser closer;
+  private KnotxModuleDeployments deployments;
+  private List<String> deployedModules;
+
+  @BeforeEach
+  void setUp() {
+    closer = new KnotxVertxCloser(1);
+    deployments =
+        new KnotxModuleDeployments(
+            "test", new VertxOptions(), closer, KnotxTimings.disabled());
+    deployedModules = new ArrayList<>();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    deployments.release();
+    closer.awaitAll();
+  }
+
+  @Test
+  @DisplayName("Expect only modules with changed configuration deployed again.")
+  void redeployChangedModules() {
+    deployments.apply(config(1000, 2000), this::deploy);
+    deployments.apply(config(1000, 2001), this::deploy);
+
+    assertEquals(3, deployedModules.size());
+    assertEquals("second", deployedModules.get(2));
+    assertEquals(2, deployments.getVertx().deploymentIDs().size());
+  }
+
+  @Test
+  @DisplayName("Expect modules no longer declared undeployed.")
+  void undeployRemovedModules() {
+    deployments.apply(config(1000, 2000), this::deploy);
+    JsonObject config = config(1000, 2000);
+    config.getJsonObject("modules").remove("second");
+    deployments.apply(config, this::deploy);
+
+    assertEquals(2, deployedModules.size());
+    assertEquals(1, deployments.getVertx().deploymentIDs().size());
+  }
+
+  @Test
+  @DisplayName("Expect all modules deployed again when a shared section changes.")
+  void redeployAllModulesWhenSharedSectionChanges() {
+    deployments.apply(config(1000, 2000), this::deploy);
+    deployments.apply(config(1000, 2000).put("global", "changed"), this::deploy);
+
+    assertEquals(4, deployedModules.size());
+    assertEquals(2, deployments.getVertx().deploymentIDs().size());
+  }
+
+  @Test
+  @DisplayName("Expect modules kept when only the test section changes.")
+  void keepModulesWhenTestSectionChanges() {
+    deployments.apply(config(1000, 2000).put("test", new JsonObject().put("a", 1)), this::deploy);
+    deployments.apply(config(1000, 2000).put("test", new JsonObject().put("a", 2)), this::deploy);
+
+    assertEquals(2, deployedModules.size());
+  }
+
+  @Test
+  @DisplayName("Expect every module deployed with all config sections.")
+  void keepSharedConfigSections() {
+    List<JsonObject> moduleConfigs = new ArrayList<>();
+    deployments.apply(
+        config(1000, 2000),
+        moduleConfig -> {
+          moduleConfigs.add(moduleConfig);
+          return deploy(moduleConfig);
+        });
+
+    moduleConfigs.forEach(
+        moduleConfig ->
+            assertEquals(
+                config(1000, 2000).getJsonObject("config"), moduleConfig.getJsonObject("config")));
+  }
+
+  private JsonObject config(int firstPort, int secondPort) {
+    return new JsonObject()
+        .put(
+            "modules",
+            new JsonObject().put("first", "io.example.First").put("second", "io.example.Second"))
+        .put(
+            "config",
+            new JsonObject()
+                .put("first", new JsonObject().put("port", firstPort))
+                .put("second", new JsonObject().put("port", secondPort)));
+  }
+
+  private String deploy(JsonObject moduleConfig) {
+    deployedModules.addAll(moduleConfig.getJsonObject("modules").fieldNames());
+
+    CompletableFuture<String> deployed = new CompletableFuture<>();
+    deployments
+        .getVertx()
+        .deployVerticle(
+            new AbstractVerticle() {},
+            new DeploymentOptions().setConfig(moduleConfig),
+            ar -> deployed.complete(ar.result()));
+    return deployed.join();
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration({
+  "config/example_random_config.conf",
+  "config/modules_config.conf",
+  "config/broken_module_config.conf"
+})
+@KnotxModules("server")
+class KnotxModulesTest {
+
+  @Test
+  @DisplayName("Expect only listed modules deployed.")
+  void deployListedModules(Vertx vertx, @RandomPort Integer globalServerPort) {
+    assertNotNull(vertx);
+    assertNotNull(globalServerPort);
+  }
+}
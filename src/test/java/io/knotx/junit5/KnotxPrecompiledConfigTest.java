@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.typesafe.config.Config;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KnotxPrecompiledConfigTest {
+
+  private static final List<String> CHAIN =
+      Arrays.asList("config/example_random_config.conf", "config/modules_config.conf");
+
+  private final KnotxConcatConfigProcessor processor = new KnotxConcatConfigProcessor();
+
+  private Vertx vertx;
+
+  @BeforeEach
+  void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  void precompiledConfig_mustBeEqualToParsedConfig() {
+    List<JsonObject> overrides = Collections.singletonList(randomPortOverride(12000));
+
+    Config precompiled =
+        KnotxPrecompiledConfig.toConfig(processor.precompile(vertx.fileSystem(), CHAIN));
+    Config parsed =
+        processor.createHoconConfig(
+            vertx.fileSystem(), new JsonObject().put("paths", new JsonArray(CHAIN)));
+
+    assertTrue(KnotxPrecompiledConfig.isPrecompiled(precompiled));
+    assertEquals(
+        processor.resolveConfig(parsed, overrides),
+        processor.resolveConfig(precompiled, overrides));
+  }
+
+  @Test
+  void precompiledConfig_mustKeepOriginalTestSection() {
+    Config precompiled =
+        KnotxPrecompiledConfig.toConfig(processor.precompile(vertx.fileSystem(), CHAIN));
+
+    // overrides from modules_config.conf
+    assertEquals(0, precompiled.getInt("test.random.globalServer.port"));
+  }
+
+  @Test
+  void precompiledConfig_mustReplaceOnlySubstitutedPorts() {
+    List<String> chain = Collections.singletonList("config/precompiled_strings_config.conf");
+    List<JsonObject> overrides =
+        Collections.singletonList(
+            new JsonObject()
+                .put(
+                    "test",
+                    new JsonObject()
+                        .put(
+                            "random",
+                            new JsonObject()
+                                .put("stringService", new JsonObject().put("port", 12000)))));
+
+    Config precompiled =
+        KnotxPrecompiledConfig.toConfig(processor.precompile(vertx.fileSystem(), chain));
+    JsonObject resolved =
+        processor.resolveConfig(precompiled, overrides).getJsonObject("stringService");
+
+    assertEquals("http://localhost:12000/path", resolved.getString("url"));
+    assertEquals("id-1737000000", resolved.getString("literal"));
+  }
+
+  @Test
+  void artifact_forChangedFiles_mustNotMatch() {
+    JsonObject artifact = processor.precompile(vertx.fileSystem(), CHAIN);
+
+    assertFalse(
+        KnotxPrecompiledConfig.matches(
+            artifact, Arrays.asList("config/example_random_config.conf#0", "other#0")));
+  }
+
+  @Test
+  void publicApi_mustNotReturnPrecompiledConfig(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("config.conf");
+    Files.write(
+        file,
+        Arrays.asList(
+            "test.random.server.port = 0", "server { port = ${test.random.server.port} }"));
+    List<String> chain = Collections.singletonList(file.toString());
+    JsonObject configuration = new JsonObject().put("paths", new JsonArray(chain));
+
+    Path artifact = dir.resolve(KnotxPrecompiledConfig.artifactName(chain));
+    Files.createDirectories(artifact.getParent());
+    Files.write(
+        artifact,
+        processor.precompile(vertx.fileSystem(), chain).encode().getBytes(StandardCharsets.UTF_8));
+
+    Thread thread = Thread.currentThread();
+    ClassLoader classLoader = thread.getContextClassLoader();
+    try (URLClassLoader artifacts =
+        new URLClassLoader(new URL[] {dir.toUri().toURL()}, classLoader)) {
+      thread.setContextClassLoader(artifacts);
+
+      Config internal =
+          processor.createKnotxConfig(vertx.fileSystem(), configuration, KnotxTimings.disabled());
+      Config parsed = processor.createHoconConfig(vertx.fileSystem(), configuration);
+      CompletableFuture<JsonObject> processed = new CompletableFuture<>();
+      processor.process(
+          vertx,
+          configuration,
+          Buffer.buffer(),
+          ar -> {
+            if (ar.succeeded()) {
+              processed.complete(ar.result());
+            } else {
+              processed.completeExceptionally(ar.cause());
+            }
+          });
+
+      assertTrue(KnotxPrecompiledConfig.isPrecompiled(internal));
+      assertFalse(KnotxPrecompiledConfig.isPrecompiled(parsed));
+      assertEquals(
+          new JsonObject().put("port", 0),
+          processed.get(10, TimeUnit.SECONDS).getJsonObject("server"));
+    } finally {
+      thread.setContextClassLoader(classLoader);
+    }
+  }
+
+  private static JsonObject randomPortOverride(int port) {
+    return new JsonObject()
+        .put(
+            "test",
+            new JsonObject()
+                .put(
+                    "random",
+                    new JsonObject()
+                        .put("globalServer", new JsonObject().put("port", port))
+                        .put("actionAdapterService", new JsonObject().put("port", port + 1))));
+  }
+}
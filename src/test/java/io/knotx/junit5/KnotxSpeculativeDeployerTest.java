@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KnotxSpeculativeDeployerTest {
+
+  private static final String FINGERPRINT = "current";
+
+  private final KnotxVertxCloser closer = new KnotxVertxCloser(4);
+  private final KnotxSpeculativeDeployer deployer =
+      new KnotxSpeculativeDeployer("test", closer, KnotxTimings.disabled());
+
+  @Test
+  @DisplayName("Expect the prepared instance taken by the next test with the same fingerprint.")
+  void hit() throws Exception {
+    KnotxDeployment deployment = deployment();
+    deployer.prepare(FINGERPRINT, () -> deployment);
+
+    assertSame(deployment, deployer.take(FINGERPRINT).get());
+    assertFalse(deployer.take(FINGERPRINT).isPresent());
+
+    deployer.close();
+    closer.awaitAll();
+    verify(deployment.getVertx(), never()).close(any());
+  }
+
+  @Test
+  @DisplayName("Expect nothing taken when no instance was prepared.")
+  void miss() throws Exception {
+    assertFalse(deployer.take(FINGERPRINT).isPresent());
+
+    deployer.close();
+  }
+
+  @Test
+  @DisplayName("Expect the prepared instance closed when the next test has another fingerprint.")
+  void discardOnMispredict() throws Exception {
+    KnotxDeployment deployment = deployment();
+    deployer.prepare(FINGERPRINT, () -> deployment);
+
+    assertFalse(deployer.take("other").isPresent());
+    // the prediction is consumed, the instance is not taken later
+    assertFalse(deployer.take(FINGERPRINT).isPresent());
+
+    deployer.close();
+    closer.awaitAll();
+    verify(deployment.getVertx()).close(any());
+  }
+
+  @Test
+  @DisplayName("Expect the previously prepared instance closed when another one is prepared.")
+  void discardOnPrepare() throws Exception {
+    KnotxDeployment first = deployment();
+    KnotxDeployment second = deployment();
+    deployer.prepare(FINGERPRINT, () -> first);
+    deployer.prepare(FINGERPRINT, () -> second);
+
+    assertSame(second, deployer.take(FINGERPRINT).get());
+
+    deployer.close();
+    closer.awaitAll();
+    verify(first.getVertx()).close(any());
+    verify(second.getVertx(), never()).close(any());
+  }
+
+  @Test
+  @DisplayName("Expect nothing taken nor closed when the preparation failed.")
+  void failedPreparation() throws Exception {
+    AtomicInteger deploys = new AtomicInteger();
+    Supplier<KnotxDeployment> failing =
+        () -> {
+          deploys.incrementAndGet();
+          throw new IllegalStateException("port in use");
+        };
+    deployer.prepare(FINGERPRINT, failing);
+
+    assertFalse(deployer.take(FINGERPRINT).isPresent());
+
+    deployer.close();
+    closer.awaitAll();
+    assertEquals(1, deploys.get());
+  }
+
+  @Test
+  @DisplayName("Expect the instance not taken by any test closed with the deployer.")
+  void closedWhenNotTaken() throws Exception {
+    KnotxDeployment deployment = deployment();
+    deployer.prepare(FINGERPRINT, () -> deployment);
+
+    deployer.close();
+    closer.awaitAll();
+
+    verify(deployment.getVertx()).close(any());
+    assertFalse(deployer.take(FINGERPRINT).isPresent());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static KnotxDeployment deployment() {
+    Vertx vertx = mock(Vertx.class);
+    doAnswer(
+            invocation -> {
+              ((Handler<AsyncResult<Void>>) invocation.getArgument(0))
+                  .handle(Future.succeededFuture());
+              return null;
+            })
+        .when(vertx)
+        .close(any());
+    return new KnotxDeployment(FINGERPRINT, vertx, Collections.emptyMap(), false);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.knotx.junit5.KnotxTestDescriptor.ParameterDescriptor;
+import io.knotx.junit5.wiremock.ClasspathResourcesMockServer;
+import io.vertx.core.Vertx;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class KnotxTestDescriptorTest {
+
+  @Test
+  void forSameClass_mustBeComputedOnce() {
+    assertSame(KnotxTestDescriptor.of(Child.class), KnotxTestDescriptor.of(Child.class));
+  }
+
+  @Test
+  void wiremockFields_mustIncludeInherited() {
+    assertEquals(
+        Arrays.asList("childServer", "parentServer"),
+        KnotxTestDescriptor.of(Child.class).getWiremockFields().stream()
+            .map(Field::getName)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void configChains_mustIncludeInheritedMethods() {
+    assertTrue(
+        KnotxTestDescriptor.of(Child.class)
+            .getConfigChains()
+            .contains(Collections.singletonList("parent.conf")));
+  }
+
+  @Test
+  void parameter_mustHaveConfigChainFromClassMethodAndParameter() throws Exception {
+    ParameterDescriptor descriptor = parameter(0);
+
+    assertEquals(
+        Arrays.asList("class.conf", "method.conf", "param.conf"), descriptor.getConfigPaths());
+    assertEquals(KnotxReuse.CLASS, descriptor.getReuse());
+    assertEquals(Arrays.asList("server"), descriptor.getModules());
+  }
+
+  @Test
+  void randomPortParameter_mustHaveServiceName() throws Exception {
+    ParameterDescriptor descriptor = parameter(1);
+
+    assertTrue(descriptor.isRandomPort());
+    assertEquals("globalServer", descriptor.getRandomPortService());
+  }
+
+  @Test
+  void randomPortParameter_withoutPortSuffix_mustFail() throws Exception {
+    assertThrows(IllegalArgumentException.class, () -> parameter(2).getRandomPortService());
+  }
+
+  private static ParameterDescriptor parameter(int index) throws NoSuchMethodException {
+    Method method =
+        Child.class.getDeclaredMethod("test", Vertx.class, Integer.class, Integer.class);
+    return KnotxTestDescriptor.of(Child.class).getParameter(method.getParameters()[index]);
+  }
+
+  static class Parent {
+
+    @ClasspathResourcesMockServer WireMockServer parentServer;
+
+    @KnotxApplyConfiguration("parent.conf")
+    void inherited(Vertx vertx) {}
+  }
+
+  @KnotxApplyConfiguration("class.conf")
+  @KnotxModules("server")
+  static class Child extends Parent {
+
+    @ClasspathResourcesMockServer WireMockServer childServer;
+
+    WireMockServer notAnnotated;
+
+    @KnotxApplyConfiguration(value = "method.conf", reuse = KnotxReuse.CLASS)
+    void test(
+        @KnotxApplyConfiguration("param.conf") Vertx vertx,
+        @RandomPort Integer globalServerPort,
+        @RandomPort Integer globalServer) {}
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.knotx.junit5.KnotxTimings.Phase;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class KnotxTimingsTest {
+
+  @Test
+  @DisplayName("Expect each timed phase to be counted.")
+  void timedPhasesCounted() {
+    KnotxTimings timings = KnotxTimings.disabled();
+
+    timings.time(Phase.DEPLOY, () -> {});
+    timings.time(Phase.DEPLOY, () -> {});
+    String result = timings.time(Phase.CONFIG_READ, () -> "read");
+
+    JsonObject json = timings.toJson();
+    assertEquals("read", result);
+    assertEquals(2L, json.getJsonObject("deploy").getLong("count"));
+    assertEquals(1L, json.getJsonObject("config.read").getLong("count"));
+    assertEquals(0L, json.getJsonObject("vertx.close").getLong("count"));
+  }
+
+  @Test
+  @DisplayName("Expect timings aggregated into another instance.")
+  void timingsAggregated() {
+    KnotxTimings first = KnotxTimings.disabled();
+    KnotxTimings second = KnotxTimings.disabled();
+    KnotxTimings aggregate = KnotxTimings.disabled();
+
+    first.record(Phase.WIREMOCK_START, System.nanoTime());
+    second.record(Phase.WIREMOCK_START, System.nanoTime());
+    first.addTo(aggregate);
+    second.addTo(aggregate);
+
+    JsonObject json = aggregate.toJson().getJsonObject("wiremock.start");
+    assertEquals(2L, json.getLong("count"));
+    assertTrue(json.getDouble("totalMs") >= 0);
+  }
+
+  @Test
+  @DisplayName("Expect only recorded phases published as a report entry when enabled.")
+  void recordedPhasesPublished(@TempDir Path dir) {
+    ExtensionContext context = context(dir);
+    KnotxTimings timings = KnotxTimings.of(context);
+
+    timings.time(Phase.CONFIG_PARSE, () -> {});
+    timings.time(Phase.DEPLOY, () -> {});
+    timings.publish(context);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Map<String, String>> entry = ArgumentCaptor.forClass(Map.class);
+    verify(context).publishReportEntry(entry.capture());
+    assertEquals(2, entry.getValue().size());
+    assertTrue(Double.parseDouble(entry.getValue().get("knotx.config.parse.ms")) >= 0);
+    assertTrue(Double.parseDouble(entry.getValue().get("knotx.deploy.ms")) >= 0);
+  }
+
+  @Test
+  @DisplayName("Expect nothing published when disabled.")
+  void disabledNotPublished() {
+    ExtensionContext context = mock(ExtensionContext.class);
+    KnotxTimings timings = KnotxTimings.disabled();
+
+    timings.time(Phase.DEPLOY, () -> {});
+    timings.publish(context);
+
+    verify(context, never()).publishReportEntry(anyMap());
+  }
+
+  @Test
+  @DisplayName("Expect enabled timings aggregated per class and suite in the JSON report.")
+  void reportWritten(@TempDir Path dir) throws Exception {
+    ExtensionContext context = context(dir);
+    KnotxTimings timings = KnotxTimings.of(context);
+    timings.time(Phase.DEPLOY, () -> {});
+    timings.time(Phase.DEPLOY, () -> {});
+    timings.time(Phase.WIREMOCK_START, () -> {});
+
+    KnotxTimingsReport.of(context).close();
+
+    JsonObject report =
+        new JsonObject(
+            new String(Files.readAllBytes(dir.resolve("timings.json")), StandardCharsets.UTF_8));
+    JsonObject suite = report.getJsonObject(KnotxTimingsReport.SUITE);
+    JsonObject owner =
+        report.getJsonObject("classes").getJsonObject(KnotxTimingsTest.class.getName());
+    assertEquals(2L, suite.getJsonObject("deploy").getLong("count"));
+    assertEquals(1L, suite.getJsonObject("wiremock.start").getLong("count"));
+    assertEquals(2L, owner.getJsonObject("deploy").getLong("count"));
+    assertEquals(0L, owner.getJsonObject("vertx.close").getLong("count"));
+    assertTrue(report.getJsonObject("caches").containsKey("parsedConfig"));
+    assertTrue(Files.exists(dir.resolve("deployments.trace.json")));
+  }
+
+  /** @return root context of this class, with timings enabled and reported into given directory */
+  private ExtensionContext context(Path dir) {
+    ExtensionContext context = mock(ExtensionContext.class);
+    Store store = mock(Store.class);
+    Map<Object, Object> values = new HashMap<>();
+    when(store.getOrComputeIfAbsent(any(), any(), any()))
+        .thenAnswer(
+            invocation ->
+                values.computeIfAbsent(
+                    invocation.getArgument(0),
+                    key -> invocation.<Function<Object, Object>>getArgument(1).apply(key)));
+
+    when(context.getRoot()).thenReturn(context);
+    when(context.getStore(any())).thenReturn(store);
+    when(context.getTestClass()).thenReturn(Optional.<Class<?>>of(KnotxTimingsTest.class));
+    when(context.getConfigurationParameter(any())).thenReturn(Optional.empty());
+    when(context.getConfigurationParameter(KnotxTimings.ENABLED_PARAMETER))
+        .thenReturn(Optional.of("true"));
+    when(context.getConfigurationParameter("knotx.junit5.timings.file"))
+        .thenReturn(Optional.of(dir.resolve("timings.json").toString()));
+    return context;
+  }
+}
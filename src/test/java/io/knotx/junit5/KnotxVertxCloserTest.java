@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KnotxVertxCloserTest {
+
+  private static final long WAIT_MILLIS = 200;
+
+  @Test
+  @DisplayName("Expect the caller to wait for a free slot when the backlog is full.")
+  void boundedBacklog() throws Exception {
+    KnotxVertxCloser closer = new KnotxVertxCloser(1);
+    CompletableFuture<Handler<AsyncResult<Void>>> firstClose = new CompletableFuture<>();
+    closer.closeAsync(vertx(firstClose), KnotxTimings.disabled());
+
+    CompletableFuture<Void> second =
+        CompletableFuture.runAsync(
+            () -> closer.closeAsyncOrFallback(closedVertx(), KnotxTimings.disabled()));
+    assertThrows(TimeoutException.class, () -> second.get(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+    firstClose.get().handle(Future.succeededFuture());
+    second.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    closer.awaitAll();
+  }
+
+  @Test
+  @DisplayName("Expect close failures reported as suppressed exceptions, once.")
+  void failuresReported() throws Exception {
+    KnotxVertxCloser closer = new KnotxVertxCloser(2);
+    RuntimeException first = new RuntimeException("first");
+    RuntimeException second = new RuntimeException("second");
+    closer.closeAsync(failingVertx(first), KnotxTimings.disabled());
+    closer.closeAsync(closedVertx(), KnotxTimings.disabled());
+    closer.closeAsync(failingVertx(second), KnotxTimings.disabled());
+
+    VertxException exception = assertThrows(VertxException.class, closer::awaitAll);
+
+    assertArrayEquals(new Throwable[] {first, second}, exception.getSuppressed());
+    closer.awaitAll();
+  }
+
+  @Test
+  @DisplayName("Expect an instance closed untracked when interrupted waiting for a free slot.")
+  void fallbackOnInterrupt() throws Exception {
+    KnotxVertxCloser closer = new KnotxVertxCloser(1);
+    CompletableFuture<Handler<AsyncResult<Void>>> firstClose = new CompletableFuture<>();
+    closer.closeAsync(vertx(firstClose), KnotxTimings.disabled());
+    Vertx interrupted = mock(Vertx.class);
+
+    Thread.currentThread().interrupt();
+    closer.closeAsyncOrFallback(interrupted, KnotxTimings.disabled());
+
+    assertTrue(Thread.interrupted());
+    verify(interrupted).close();
+    verify(interrupted, never()).close(any());
+    firstClose.get().handle(Future.succeededFuture());
+    closer.awaitAll();
+  }
+
+  @Test
+  @DisplayName("Expect pending closes awaited without reporting failures.")
+  void pendingAwaited() throws Exception {
+    KnotxVertxCloser closer = new KnotxVertxCloser(1);
+    RuntimeException failure = new RuntimeException("failure");
+    CompletableFuture<Handler<AsyncResult<Void>>> close = new CompletableFuture<>();
+    closer.closeAsync(vertx(close), KnotxTimings.disabled());
+
+    CompletableFuture<Void> awaited =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                closer.awaitPending();
+              } catch (TimeoutException | InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    assertFalse(awaited.isDone());
+
+    close.get().handle(Future.failedFuture(failure));
+    awaited.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    assertSame(
+        failure, assertThrows(VertxException.class, closer::awaitAll).getSuppressed()[0]);
+  }
+
+  /** @return instance whose close handler is completed by the test */
+  private static Vertx vertx(CompletableFuture<Handler<AsyncResult<Void>>> closeHandler) {
+    Vertx vertx = mock(Vertx.class);
+    doAnswer(
+            invocation -> {
+              closeHandler.complete(invocation.getArgument(0));
+              return null;
+            })
+        .when(vertx)
+        .close(any());
+    return vertx;
+  }
+
+  private static Vertx closedVertx() {
+    return completedVertx(Future.succeededFuture());
+  }
+
+  private static Vertx failingVertx(Throwable failure) {
+    return completedVertx(Future.failedFuture(failure));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Vertx completedVertx(AsyncResult<Void> result) {
+    Vertx vertx = mock(Vertx.class);
+    doAnswer(
+            invocation -> {
+              ((Handler<AsyncResult<Void>>) invocation.getArgument(0)).handle(result);
+              return null;
+            })
+        .when(vertx)
+        .close(any());
+    return vertx;
+  }
+}
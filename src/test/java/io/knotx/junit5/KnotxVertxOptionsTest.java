@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.common.collect.Iterables;
+import io.knotx.junit5.KnotxVertxOptions.Preset;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(KnotxExtension.class)
+@KnotxApplyConfiguration("config/example_random_config.conf")
+@KnotxVertxOptions(preset = Preset.LIGHTWEIGHT)
+class KnotxVertxOptionsTest {
+
+  @Test
+  @DisplayName("Expect Vert.x built with the lightweight preset declared on the class.")
+  void lightweightPreset(Vertx vertx) {
+    assertEquals(2, eventLoops(vertx));
+  }
+
+  @Test
+  @KnotxVertxOptions(preset = Preset.LIGHTWEIGHT, eventLoopPoolSize = 3)
+  @DisplayName("Expect declared attributes applied over the preset of the method annotation.")
+  void declaredOverPreset(Vertx vertx) {
+    assertEquals(3, eventLoops(vertx));
+  }
+
+  @Test
+  @DisplayName("Expect the parameter annotation used over the class one.")
+  void parameterOverClass(@KnotxVertxOptions(eventLoopPoolSize = 1) Vertx vertx) {
+    assertEquals(1, eventLoops(vertx));
+  }
+
+  @Test
+  @DisplayName("Expect lightweight preset pool sizes, declared attributes taking precedence.")
+  void optionsFromAnnotation() throws NoSuchMethodException {
+    VertxOptions lightweight = KnotxExtension.createVertxOptions(annotation("lightweightPreset"));
+    VertxOptions declared = KnotxExtension.createVertxOptions(annotation("declaredOverPreset"));
+    VertxOptions defaults = new VertxOptions();
+
+    assertEquals(2, lightweight.getEventLoopPoolSize());
+    assertEquals(4, lightweight.getWorkerPoolSize());
+    assertEquals(4, lightweight.getInternalBlockingPoolSize());
+    assertEquals(
+        defaults.getBlockedThreadCheckInterval(), lightweight.getBlockedThreadCheckInterval());
+    assertEquals(3, declared.getEventLoopPoolSize());
+    assertEquals(4, declared.getWorkerPoolSize());
+  }
+
+  /** @return annotation of the test method, the class one when the method has none */
+  private static KnotxVertxOptions annotation(String method) throws NoSuchMethodException {
+    KnotxVertxOptions annotation =
+        KnotxVertxOptionsTest.class
+            .getDeclaredMethod(method, Vertx.class)
+            .getAnnotation(KnotxVertxOptions.class);
+    return annotation != null
+        ? annotation
+        : KnotxVertxOptionsTest.class.getAnnotation(KnotxVertxOptions.class);
+  }
+
+  private static int eventLoops(Vertx vertx) {
+    return Iterables.size(vertx.nettyEventLoopGroup());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class HoconUtilTest {
+
+  static final ConfigRenderOptions JSON =
+      ConfigRenderOptions.concise().setJson(true).setComments(false).setFormatted(false);
+
+  private static final String VALUES =
+      "string = \"text\"\n"
+          + "int = 42\n"
+          + "long = 4200000000000\n"
+          + "double = 4.2\n"
+          + "exponent = 1e3\n"
+          + "bool = true\n"
+          + "nothing = null\n"
+          + "list = [1, \"two\", {three = 3}, [4]]\n"
+          + "emptyList = []\n"
+          + "emptyObject {}\n"
+          + "10 = ten\n"
+          + "9 = nine\n"
+          + "nested.deeper.key = ${string}\n";
+
+  @Test
+  void toJsonObject_mustBeEqualToRenderedJson() {
+    Config config = ConfigFactory.parseString(VALUES).resolve();
+
+    JsonObject expected = new JsonObject(config.root().render(JSON));
+    JsonObject actual = HoconUtil.toJsonObject(config.root());
+
+    assertEquals(expected, actual);
+    assertEquals(expected.encode(), actual.encode());
+  }
+
+  @Test
+  void toConfig_mustBeEqualToParsedJson() {
+    JsonObject json =
+        HoconUtil.toJsonObject(ConfigFactory.parseString(VALUES).resolve().root())
+            .put("dotted.key", new JsonObject().put("map", Collections.singletonMap("a", 1)));
+
+    Config expected = ConfigFactory.parseString(json.encode());
+
+    assertEquals(expected.root().unwrapped(), HoconUtil.toConfig(json).root().unwrapped());
+  }
+
+  @Test
+  void toJsonObject_mustBeEqualToRenderedJson_forManyModules() {
+    Config config = largeConfig(100);
+
+    assertEquals(
+        new JsonObject(config.root().render(JSON)), HoconUtil.toJsonObject(config.root()));
+  }
+
+  static Config largeConfig(int modules) {
+    // substitutions are absolute, the referenced value must be in the root
+    StringBuilder hocon = new StringBuilder("string = \"text\"\n");
+    for (int i = 0; i < modules; i++) {
+      hocon.append("module").append(i).append(" {\n").append(VALUES).append("}\n");
+    }
+    return ConfigFactory.parseString(hocon.toString()).resolve();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.wiremock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class KnotxServerRegistryTest {
+
+  private static final int CLASSES = 100;
+  private static final int SERVERS_PER_CLASS = 10;
+
+  @Test
+  @DisplayName("Expect entries of an owner not mixed with owners sharing its name prefix.")
+  void ownersWithCommonPrefix() {
+    KnotxServerRegistry<Integer> registry = new KnotxServerRegistry<>();
+    registry.put("io.example.Test", "mockService", 1);
+    registry.put("io.example.TestOther", "mockService", 2);
+
+    assertEquals(1, registry.entriesOf("io.example.Test").size());
+    assertEquals(1, registry.get("io.example.Test", "mockService").intValue());
+    assertNull(registry.putIfAbsent("io.example.Test", "otherService", 3));
+    assertEquals(3, registry.putIfAbsent("io.example.Test", "otherService", 4).intValue());
+
+    registry.removeOwner("io.example.Test");
+    assertFalse(registry.hasEntries("io.example.Test"));
+    assertTrue(registry.hasEntries("io.example.TestOther"));
+  }
+
+  @Test
+  @DisplayName("Expect owner queries and removal not touching entries of other owners.")
+  void ownerQueriesTouchOwnEntriesOnly() {
+    List<CountingMap> entries = new ArrayList<>();
+    KnotxServerRegistry<Integer> registry =
+        new KnotxServerRegistry<Integer>(
+            () -> {
+              CountingMap map = new CountingMap();
+              entries.add(map);
+              return map;
+            });
+    for (int c = 0; c < CLASSES; c++) {
+      for (int s = 0; s < SERVERS_PER_CLASS; s++) {
+        registry.put(owner(c), "server" + s, c * SERVERS_PER_CLASS + s);
+      }
+    }
+    entries.forEach(CountingMap::resetAccesses);
+
+    String owner = owner(CLASSES / 2);
+    assertEquals(SERVERS_PER_CLASS, registry.entriesOf(owner).values().stream().count());
+    assertTrue(registry.hasEntries(owner));
+    assertEquals(SERVERS_PER_CLASS, registry.removeOwner(owner).size());
+    assertFalse(registry.hasEntries(owner));
+
+    CountingMap ownerEntries = entries.get(CLASSES / 2);
+    assertTrue(ownerEntries.accesses > 0);
+    for (CountingMap other : entries) {
+      if (other != ownerEntries) {
+        assertEquals(0, other.accesses);
+      }
+    }
+  }
+
+  private static String owner(int index) {
+    return "io.knotx.junit5.example.Test" + index;
+  }
+
+  /** Counts reads of the owner's entries */
+  private static final class CountingMap extends ConcurrentHashMap<String, Integer> {
+
+    private int accesses;
+
+    void resetAccesses() {
+      accesses = 0;
+    }
+
+    @Override
+    public Integer get(Object key) {
+      accesses++;
+      return super.get(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      accesses++;
+      return super.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      accesses++;
+      return super.size();
+    }
+
+    @Override
+    public Collection<Integer> values() {
+      accesses++;
+      return super.values();
+    }
+
+    @Override
+    public Set<Entry<String, Integer>> entrySet() {
+      accesses++;
+      return super.entrySet();
+    }
+
+    @Override
+    public KeySetView<String, Integer> keySet() {
+      accesses++;
+      return super.keySet();
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static io.knotx.junit5.wiremock.KnotxWiremockExtension.stubForServer;
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.core.Options;
@@ -175,4 +176,22 @@ class KnotxWiremockExtensionTest {
     // @formatter:on
   }
 
+  @Test
+  @DisplayName("Expect response body served from cache when the same file is requested again.")
+  void repeatedRequestServedFromBodyCache() {
+    given().port(dynamicPortServer.port()).when().get(SERVER_URL).then().statusCode(200);
+    long hits = KnotxWiremockExtension.bodyCacheStats().hitCount();
+
+    // @formatter:off
+    given().
+        port(dynamicPortServer.port()).
+    when().
+        get(SERVER_URL).
+    then().assertThat().
+        statusCode(200).
+        header("scope", "class");
+    // @formatter:on
+    assertTrue(KnotxWiremockExtension.bodyCacheStats().hitCount() > hits);
+  }
+
 }
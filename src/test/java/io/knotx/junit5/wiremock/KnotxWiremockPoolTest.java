@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.wiremock;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.typesafe.config.ConfigFactory;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+import org.mockito.ArgumentCaptor;
+
+class KnotxWiremockPoolTest {
+
+  private static final int STATIC_PORT = 11456;
+
+  private final KnotxWiremockPool pool = new KnotxWiremockPool();
+  private final Store store = mock(Store.class);
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownAll();
+  }
+
+  @Test
+  @DisplayName("Expect a released server leased by a later class with the same configuration.")
+  void lease() {
+    pool.register(context("4", null));
+    KnotxMockConfig config = mockConfig("urlMatching = \".*\"");
+    KnotxWiremockServer server = server(config);
+
+    assertNull(pool.lease(config));
+    pool.release(server);
+
+    assertNull(pool.lease(mockConfig("mimetype = \"text/html\"")));
+    assertNull(pool.lease(mockConfig("callToConfigure = \"io.example.Mocks#configure\"")));
+    assertSame(server, pool.lease(mockConfig("port = null")));
+    assertNull(pool.lease(config));
+    verify(server, never()).stop();
+  }
+
+  @Test
+  @DisplayName("Expect a server reset when released to the pool.")
+  void resetOnRelease() {
+    pool.register(context("4", null));
+    KnotxWiremockServer server = server(new KnotxMockConfig("first", KnotxMockConfig.RANDOM_PORT));
+
+    pool.release(server);
+
+    verify(server).resetAll();
+    verify(server, never()).stop();
+  }
+
+  @Test
+  @DisplayName("Expect released servers shut down when the pool size is not set.")
+  void disabledByDefault() {
+    pool.register(context(null, null));
+    KnotxMockConfig config = new KnotxMockConfig("first", KnotxMockConfig.RANDOM_PORT);
+    KnotxWiremockServer server = server(config);
+
+    pool.release(server);
+
+    verify(server).stop();
+    assertNull(pool.lease(config));
+  }
+
+  @Test
+  @DisplayName("Expect servers bound to static ports shut down instead of pooled.")
+  void staticPortNotPooled() {
+    pool.register(context("4", null));
+    KnotxMockConfig config = new KnotxMockConfig("first", STATIC_PORT);
+    KnotxWiremockServer server = server(config);
+
+    pool.release(server);
+
+    // the port is free for other servers, stubs for it do not reach an idle server
+    verify(server).stop();
+    assertNull(pool.lease(config));
+  }
+
+  @Test
+  @DisplayName("Expect the longest idle server shut down when the pool is full.")
+  void fullPoolEvictsOldest() {
+    pool.register(context("1", null));
+    KnotxMockConfig config = new KnotxMockConfig("first", KnotxMockConfig.RANDOM_PORT);
+    KnotxWiremockServer oldest = server(config);
+    KnotxWiremockServer newest = server(config);
+
+    pool.release(oldest);
+    pool.release(newest);
+
+    verify(oldest).stop();
+    assertSame(newest, pool.lease(config));
+  }
+
+  @Test
+  @DisplayName("Expect servers idle for too long shut down when a server is leased.")
+  void idleTimeout() throws InterruptedException {
+    pool.register(context("4", "0"));
+    KnotxMockConfig config = new KnotxMockConfig("first", KnotxMockConfig.RANDOM_PORT);
+    KnotxWiremockServer server = server(config);
+    pool.release(server);
+
+    // idle for longer than the timeout
+    Thread.sleep(10);
+    assertNull(pool.lease(config));
+
+    // stopped in the background, awaited when the suite finishes
+    pool.shutdownAll();
+    verify(server).stop();
+  }
+
+  @Test
+  @DisplayName("Expect all idle servers shut down when the suite finishes.")
+  void shutdownAll() throws Throwable {
+    pool.register(context("4", null));
+    KnotxMockConfig config = new KnotxMockConfig("first", KnotxMockConfig.RANDOM_PORT);
+    KnotxWiremockServer first = server(config);
+    KnotxWiremockServer second = server(mockConfig("mimetype = \"text/html\""));
+    pool.release(first);
+    pool.release(second);
+
+    ArgumentCaptor<CloseableResource> resource = ArgumentCaptor.forClass(CloseableResource.class);
+    verify(store).put(eq(KnotxWiremockPool.class), resource.capture());
+    resource.getValue().close();
+
+    verify(first).stop();
+    verify(second).stop();
+    assertNull(pool.lease(config));
+  }
+
+  private static KnotxMockConfig mockConfig(String hocon) {
+    return KnotxMockConfig.createMockConfig(
+        ConfigFactory.parseString("server." + hocon), "server", "server");
+  }
+
+  private static KnotxWiremockServer server(KnotxMockConfig config) {
+    KnotxWiremockServer server = mock(KnotxWiremockServer.class);
+    when(server.isRunning()).thenReturn(true);
+    when(server.getMockConfig()).thenReturn(config);
+    when(server.getPoolKey()).thenReturn(config.getPoolKey());
+    return server;
+  }
+
+  private ExtensionContext context(String maxSize, String idleTimeoutSeconds) {
+    ExtensionContext context = mock(ExtensionContext.class);
+    when(context.getRoot()).thenReturn(context);
+    when(context.getStore(any())).thenReturn(store);
+    when(context.getConfigurationParameter(KnotxWiremockPool.MAX_SIZE_PARAMETER))
+        .thenReturn(Optional.ofNullable(maxSize));
+    when(context.getConfigurationParameter(KnotxWiremockPool.IDLE_TIMEOUT_PARAMETER))
+        .thenReturn(Optional.ofNullable(idleTimeoutSeconds));
+    return context;
+  }
+}
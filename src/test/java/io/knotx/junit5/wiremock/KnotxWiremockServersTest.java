@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.junit5.wiremock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
+import org.junit.jupiter.api.extension.ExtensionContext.Store.CloseableResource;
+
+class KnotxWiremockServersTest {
+
+  private static final int STATIC_PORT = 11345;
+  private static final String OWNER = KnotxWiremockServersTest.class.getName();
+  private static final String OTHER_OWNER = OtherTest.class.getName();
+
+  private final KnotxWiremockExtension extension = new KnotxWiremockExtension();
+  private final List<CloseableResource> resources = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() throws Throwable {
+    finish();
+  }
+
+  @Test
+  @DisplayName("Expect one server started when tests of a class race for the same server name.")
+  void sameNameRaced() throws Exception {
+    Config config = wiremock("mockService");
+
+    List<Integer> ports =
+        race(() -> port(OWNER, config, "mockService"), () -> port(OWNER, config, "mockService"));
+
+    // random ports, two started servers would not share one
+    assertEquals(ports.get(0), ports.get(1));
+    assertTrue(isListening(ports.get(0)));
+  }
+
+  @Test
+  @DisplayName("Expect one server started when classes race for the same static port.")
+  void samePortRaced() throws Exception {
+    Config config = wiremock("mockService", STATIC_PORT);
+
+    // the second start would fail to bind the port
+    List<List<JsonObject>> overrides =
+        race(() -> overrides(OWNER, config), () -> overrides(OTHER_OWNER, config));
+
+    // the class starting the server overrides its port, the other one shares the server
+    assertEquals(1, overrides.stream().mapToInt(List::size).sum());
+    assertTrue(isListening(STATIC_PORT));
+  }
+
+  @Test
+  @DisplayName("Expect a failed start not registered under its name nor its port.")
+  void failedStartCleanedUp() throws Exception {
+    Config config = wiremock("mockService", STATIC_PORT);
+
+    try (ServerSocket bound = new ServerSocket(STATIC_PORT)) {
+      assertThrows(RuntimeException.class, () -> overrides(OWNER, config));
+    }
+
+    // a registered failure would be rethrown for the same port and for the same name
+    assertEquals(STATIC_PORT, port(overrides(OTHER_OWNER, config), "mockService"));
+    assertTrue(overrides(OWNER, config).isEmpty());
+    assertTrue(isListening(STATIC_PORT));
+  }
+
+  @Test
+  @DisplayName("Expect other servers of a configuration started when one of them fails to start.")
+  void otherServersStartedOnFailure() throws Exception {
+    Config config = wiremock("first", "second").withFallback(wiremock("bound", STATIC_PORT));
+
+    try (ServerSocket bound = new ServerSocket(STATIC_PORT)) {
+      assertThrows(RuntimeException.class, () -> overrides(OWNER, config));
+    }
+
+    // started servers are registered, so the class reuses and finally releases them
+    List<JsonObject> overrides = new ArrayList<>();
+    extension.addToOverrides(wiremock("first", "second"), overrides, OWNER);
+    int first = port(overrides, "first");
+    int second = port(overrides, "second");
+    assertNotEquals(first, second);
+    assertTrue(isListening(first));
+    assertTrue(isListening(second));
+
+    finish();
+    assertFalse(isListening(first));
+    assertFalse(isListening(second));
+  }
+
+  @Test
+  @DisplayName("Expect all servers of a configuration started, and stopped when classes finish.")
+  void serversStartedAndStopped() throws Exception {
+    List<JsonObject> overrides = new ArrayList<>();
+    extension.addToOverrides(wiremock("first", "second", "third"), overrides, OWNER);
+    List<Integer> ports =
+        Arrays.asList(
+            port(overrides, "first"), port(overrides, "second"), port(overrides, "third"));
+
+    assertEquals(3, new HashSet<>(ports).size());
+    for (int port : ports) {
+      assertTrue(isListening(port));
+    }
+
+    finish();
+    for (int port : ports) {
+      assertFalse(isListening(port));
+    }
+  }
+
+  /** Finish both test classes and the suite, as JUnit does */
+  private void finish() throws Throwable {
+    extension.afterAll(context(KnotxWiremockServersTest.class));
+    extension.afterAll(context(OtherTest.class));
+    for (CloseableResource resource : resources) {
+      resource.close();
+    }
+    resources.clear();
+  }
+
+  private int port(String owner, Config config, String server) {
+    return port(overrides(owner, config), server);
+  }
+
+  private List<JsonObject> overrides(String owner, Config config) {
+    List<JsonObject> overrides = new ArrayList<>();
+    extension.addToOverrides(config, overrides, owner);
+    return overrides;
+  }
+
+  private static int port(List<JsonObject> overrides, String server) {
+    return overrides
+        .get(0)
+        .getJsonObject("test")
+        .getJsonObject("wiremock")
+        .getJsonObject(server)
+        .getInteger("port");
+  }
+
+  /** @return results of both tasks, started at the same time */
+  private static <T> List<T> race(Callable<T> first, Callable<T> second) throws Exception {
+    CyclicBarrier start = new CyclicBarrier(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<T>> futures =
+          executor.invokeAll(
+              Arrays.<Callable<T>>asList(
+                  () -> {
+                    start.await();
+                    return first.call();
+                  },
+                  () -> {
+                    start.await();
+                    return second.call();
+                  }));
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Config wiremock(String... servers) {
+    StringBuilder hocon = new StringBuilder();
+    for (String server : servers) {
+      hocon.append("test.wiremock.").append(server).append(".urlMatching = \".*\"\n");
+    }
+    return ConfigFactory.parseString(hocon.toString());
+  }
+
+  private static Config wiremock(String server, int port) {
+    return ConfigFactory.parseString("test.wiremock." + server + ".port = " + port);
+  }
+
+  private static boolean isListening(int port) {
+    try (Socket socket = new Socket("localhost", port)) {
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private ExtensionContext context(Class<?> testClass) {
+    ExtensionContext context = mock(ExtensionContext.class);
+    Store store = mock(Store.class);
+    Map<Object, Object> values = new HashMap<>();
+    when(store.getOrComputeIfAbsent(any(), any(), any()))
+        .thenAnswer(
+            invocation ->
+                values.computeIfAbsent(
+                    invocation.getArgument(0),
+                    key -> invocation.<Function<Object, Object>>getArgument(1).apply(key)));
+    // resources closed when the suite finishes, e.g. the servers pool
+    doAnswer(
+            invocation -> {
+              Object value = invocation.getArgument(1);
+              if (value instanceof CloseableResource) {
+                resources.add((CloseableResource) value);
+              }
+              return null;
+            })
+        .when(store)
+        .put(any(), any());
+
+    when(context.getRoot()).thenReturn(context);
+    when(context.getStore(any())).thenReturn(store);
+    when(context.getTestClass()).thenReturn(Optional.<Class<?>>of(testClass));
+    when(context.getConfigurationParameter(any())).thenReturn(Optional.empty());
+    return context;
+  }
+
+  /** Second test class sharing servers with this one */
+  private static class OtherTest {}
+}